@@ -0,0 +1,152 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.module.conomy.BaseAccount;
+import org.cubeengine.module.conomy.ConfigCurrency;
+import org.cubeengine.module.conomy.storage.BalanceModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.economy.Currency;
+import org.spongepowered.api.service.economy.transaction.TransactionResult;
+import org.spongepowered.api.service.economy.transaction.TransferResult;
+
+import static org.cubeengine.module.conomy.storage.TableBalance.TABLE_BALANCE;
+
+/**
+ * Throughput of reading and changing balances once they are loaded.
+ * <p>Changed balances are written in the background so the database is not part of the measurement.
+ * The baseline benchmarks run the previous handling which stored every change right away, see {@link LegacyBalance}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceBenchmark
+{
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    private static final BigDecimal START = BigDecimal.valueOf(1_000_000_000L);
+    private static final Set<Context> GLOBAL = Collections.emptySet();
+
+    private BenchmarkEnvironment env;
+    private Currency currency;
+    private BaseAccount from;
+    private BaseAccount to;
+    private LegacyBalance legacyFrom;
+    private LegacyBalance legacyTo;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.env = new BenchmarkEnvironment();
+        this.currency = env.getService().defaultCurrency();
+        this.from = env.account();
+        this.to = env.account();
+        this.from.setBalance(currency, START, GLOBAL);
+        this.to.setBalance(currency, START, GLOBAL);
+        this.legacyFrom = legacy(env.account());
+        this.legacyTo = legacy(env.account());
+    }
+
+    private LegacyBalance legacy(BaseAccount account)
+    {
+        account.setBalance(currency, START, GLOBAL);
+        env.getService().getBalanceWriter().flush();
+        BalanceModel model = env.getDSL().selectFrom(TABLE_BALANCE).where(TABLE_BALANCE.ACCOUNT_ID.eq(account.identifier())).fetchOne();
+        return new LegacyBalance(model, currency.defaultFractionDigits(), ((ConfigCurrency) currency).getMin(account));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.env.close();
+    }
+
+    @Benchmark
+    public BigDecimal balance()
+    {
+        return from.balance(currency, GLOBAL);
+    }
+
+    @Benchmark
+    public TransactionResult deposit()
+    {
+        return from.deposit(currency, AMOUNT, GLOBAL);
+    }
+
+    @Benchmark
+    public TransactionResult withdraw()
+    {
+        return from.withdraw(currency, AMOUNT, GLOBAL);
+    }
+
+    @Benchmark
+    public TransferResult transfer()
+    {
+        return from.transfer(to, currency, AMOUNT, GLOBAL);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransferResult transferContended()
+    {
+        return from.transfer(to, currency, AMOUNT, GLOBAL);
+    }
+
+    @Benchmark
+    public BigDecimal baselineBalance()
+    {
+        return legacyFrom.balance();
+    }
+
+    @Benchmark
+    public boolean baselineDeposit()
+    {
+        return legacyFrom.deposit(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean baselineWithdraw()
+    {
+        return legacyFrom.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean baselineTransfer()
+    {
+        return legacyFrom.transfer(legacyTo, AMOUNT);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.cubeengine.libcube.service.permission.PermissionManager;
+import org.cubeengine.module.conomy.BaseAccount;
+import org.cubeengine.module.conomy.Conomy;
+import org.cubeengine.module.conomy.ConomyConfiguration;
+import org.cubeengine.module.conomy.ConomyService;
+import org.cubeengine.module.conomy.storage.TableAccount;
+import org.cubeengine.module.conomy.storage.TableBalance;
+import org.cubeengine.module.sql.database.Database;
+import org.cubeengine.reflect.Reflector;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.spongepowered.plugin.PluginContainer;
+
+import static org.cubeengine.module.conomy.storage.TableAccount.TABLE_ACCOUNT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A {@link ConomyService} running outside of a server on an in-memory H2 database.
+ */
+final class BenchmarkEnvironment implements AutoCloseable
+{
+    private final Path directory;
+    private final DSLContext dsl;
+    private final ConomyService service;
+
+    BenchmarkEnvironment() throws IOException
+    {
+        this.directory = Files.createTempDirectory("conomy-benchmark");
+        this.dsl = DSL.using("jdbc:h2:mem:conomy" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+        Database db = mock(Database.class);
+        when(db.getDSL()).thenReturn(this.dsl);
+        new TableAccount().createTable(db);
+        new TableBalance().createTable(db);
+
+        Reflector reflector = new Reflector();
+        ConomyConfiguration config = reflector.create(ConomyConfiguration.class);
+        this.service = new ConomyService(mock(Conomy.class), config, this.directory, db, reflector,
+                                         mock(PermissionManager.class), mock(PluginContainer.class), LogManager.getLogger("conomy-benchmark"));
+    }
+
+    ConomyService getService()
+    {
+        return service;
+    }
+
+    DSLContext getDSL()
+    {
+        return dsl;
+    }
+
+    /**
+     * Creates and loads a user account
+     *
+     * @return the account
+     */
+    BaseAccount.Unique account()
+    {
+        UUID uuid = UUID.randomUUID();
+        this.dsl.newRecord(TABLE_ACCOUNT).newAccount(uuid, uuid.toString(), false, false).store();
+        return (BaseAccount.Unique) this.service.findOrCreateAccount(uuid).get();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.service.getBalanceWriter().shutdown();
+        this.dsl.close();
+        try (Stream<Path> files = Files.walk(this.directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.libcube.util.ContextUtil;
+import org.cubeengine.module.conomy.BaseAccount;
+import org.cubeengine.module.conomy.ConfigCurrency;
+import org.cubeengine.module.conomy.Leaderboard;
+import org.jooq.Record4;
+import org.jooq.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.economy.transaction.TransactionResult;
+
+import static org.cubeengine.module.conomy.storage.TableAccount.TABLE_ACCOUNT;
+import static org.cubeengine.module.conomy.storage.TableBalance.TABLE_BALANCE;
+
+/**
+ * Latency of the toplist compared to the query it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark
+{
+    private static final Set<Context> GLOBAL = Collections.emptySet();
+
+    @Param("10000")
+    private int accounts;
+
+    private BenchmarkEnvironment env;
+    private ConfigCurrency currency;
+    private BaseAccount[] ranked;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.env = new BenchmarkEnvironment();
+        this.currency = (ConfigCurrency) env.getService().defaultCurrency();
+        this.ranked = new BaseAccount[accounts];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < accounts; i++)
+        {
+            ranked[i] = env.account();
+            ranked[i].setBalance(currency, BigDecimal.valueOf(random.nextInt(1_000_000)), GLOBAL);
+        }
+        env.getService().getBalanceWriter().flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.env.close();
+    }
+
+    private BaseAccount randomAccount()
+    {
+        return ranked[ThreadLocalRandom.current().nextInt(ranked.length)];
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> top()
+    {
+        return env.getService().getTopBalance(currency, ContextUtil.GLOBAL, true, 1, 10, false);
+    }
+
+    @Benchmark
+    public Result<Record4<String, String, String, Long>> topQuery()
+    {
+        return env.getDSL().select(TABLE_BALANCE.ACCOUNT_ID, TABLE_BALANCE.CURRENCY, TABLE_BALANCE.CONTEXT, TABLE_BALANCE.BALANCE)
+                  .from(TABLE_BALANCE.join(TABLE_ACCOUNT).on(TABLE_BALANCE.ACCOUNT_ID.eq(TABLE_ACCOUNT.ID)))
+                  .where(TABLE_ACCOUNT.IS_UUID.eq(true)).and(TABLE_ACCOUNT.HIDDEN.eq(false))
+                  .orderBy(TABLE_BALANCE.BALANCE.desc()).limit(0, 10).fetch();
+    }
+
+    @Benchmark
+    public int rank()
+    {
+        return env.getService().getLeaderboard().rank(randomAccount().identifier(), currency, ContextUtil.GLOBAL, true, false);
+    }
+
+    @Benchmark
+    public TransactionResult deposit()
+    {
+        return randomAccount().deposit(currency, BigDecimal.ONE, GLOBAL);
+    }
+}
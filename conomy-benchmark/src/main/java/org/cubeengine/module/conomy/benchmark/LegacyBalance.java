@@ -0,0 +1,83 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy.benchmark;
+
+import java.math.BigDecimal;
+import org.cubeengine.module.conomy.storage.BalanceModel;
+
+import static org.cubeengine.module.conomy.storage.TableBalance.TABLE_BALANCE;
+
+/**
+ * A copy of the balance handling before balances were held in cells.
+ * <p>Every balance is its jOOQ record, amounts are converted through doubles and every change is stored right away.
+ */
+final class LegacyBalance
+{
+    private final BalanceModel model;
+    private final int factor;
+    private final BigDecimal min;
+
+    LegacyBalance(BalanceModel model, int fractionDigits, BigDecimal min)
+    {
+        this.model = model;
+        this.factor = (int) Math.pow(10, fractionDigits);
+        this.min = min;
+    }
+
+    BigDecimal balance()
+    {
+        return BigDecimal.valueOf((double) model.getBalance() / factor);
+    }
+
+    boolean deposit(BigDecimal amount)
+    {
+        this.setBalance(model.getBalance() + toLong(amount));
+        return true;
+    }
+
+    boolean withdraw(BigDecimal amount)
+    {
+        long newBalance = model.getBalance() - toLong(amount);
+        if (newBalance < toLong(min))
+        {
+            return false;
+        }
+        this.setBalance(newBalance);
+        return true;
+    }
+
+    boolean transfer(LegacyBalance to, BigDecimal amount)
+    {
+        if (!this.withdraw(amount))
+        {
+            return false;
+        }
+        return to.deposit(amount);
+    }
+
+    private long toLong(BigDecimal amount)
+    {
+        return (long) (amount.doubleValue() * factor);
+    }
+
+    private void setBalance(long balance)
+    {
+        model.set(TABLE_BALANCE.BALANCE, balance);
+        model.store();
+    }
+}
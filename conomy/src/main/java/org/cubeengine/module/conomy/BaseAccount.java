@@ -24,11 +24,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import net.kyori.adventure.text.Component;
 import org.cubeengine.module.conomy.bank.BankConomyService;
 import org.cubeengine.module.conomy.storage.AccountModel;
+import org.cubeengine.module.conomy.storage.BalanceCell;
 import org.cubeengine.module.conomy.storage.BalanceModel;
 import org.cubeengine.module.sql.database.Database;
+import org.jooq.exception.DataAccessException;
 import org.spongepowered.api.event.Cause;
 import org.spongepowered.api.service.context.Context;
 import org.spongepowered.api.service.economy.Currency;
@@ -51,7 +55,9 @@ public abstract class BaseAccount implements Account
     private ConomyService service;
     protected AccountModel account;
     private Database db;
-    private Map<Currency, Map<Context, BalanceModel>> balance = new HashMap<>();
+    private final Map<Currency, Map<Context, BalanceCell>> balance = new ConcurrentHashMap<>();
+    private final int lockStripe;
+    private final Lock lock;
 
     private final Component display;
     private final String id;
@@ -63,6 +69,8 @@ public abstract class BaseAccount implements Account
         this.db = db;
         this.display = Component.text(account.getName());
         this.id = account.getID();
+        this.lockStripe = service.getLockStripe(this.id);
+        this.lock = service.getLock(this.lockStripe);
     }
 
     @Override
@@ -119,34 +127,100 @@ public abstract class BaseAccount implements Account
         return this.transfer(to, currency, amount, Collections.emptySet());
     }
 
-    private Optional<BalanceModel> getModel(ConfigCurrency currency, Set<Context> ctxs)
+    /**
+     * Returns the balance of this account in the context relevant for the currency loading it if needed
+     *
+     * @return the balance or null if the currency is not available in given contexts
+     */
+    private BalanceCell getCell(ConfigCurrency currency, Set<Context> ctxs)
     {
-        Map<Context, BalanceModel> balances = this.balance.get(currency);
+        Optional<Context> relevantCtx = currency.getRelevantContext(ctxs);
+        if (!relevantCtx.isPresent())
+        {
+            return null;
+        }
+        Context context = relevantCtx.get();
+        Map<Context, BalanceCell> balances = this.balance.get(currency);
         if (balances == null)
         {
-            balances = new HashMap<>();
-            balance.put(currency, balances);
+            balances = this.balance.computeIfAbsent(currency, c -> new ConcurrentHashMap<>());
         }
-        Optional<Context> relevantCtx = currency.getRelevantContext(ctxs);
-        if (!relevantCtx.isPresent())
+        BalanceCell cell = balances.get(context);
+        if (cell == null)
         {
-            return Optional.empty();
+            // Loaded without holding the lock as it is shared with other accounts
+            BalanceCell loaded = new BalanceCell(loadModel(currency, context));
+            this.lock.lock();
+            try
+            {
+                cell = balances.putIfAbsent(context, loaded);
+                if (cell == null)
+                {
+                    cell = loaded;
+                    service.getLeaderboard().update(cell.getModel(), account.isUUID(), account.isHidden(), cell.get());
+                }
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
         }
-        BalanceModel balanceModel = balances.get(relevantCtx.get());
+        return cell;
+    }
+
+    private BalanceModel loadModel(ConfigCurrency currency, Context context)
+    {
+        BalanceModel balanceModel = selectModel(currency, context);
         if (balanceModel == null)
         {
-            balanceModel = db.getDSL().selectFrom(TABLE_BALANCE).where(TABLE_BALANCE.ACCOUNT_ID.eq(account.getID()))
-                    .and(TABLE_BALANCE.CONTEXT.eq(relevantCtx.get().getKey() + "|" + relevantCtx.get().getValue()))
-                    .and(TABLE_BALANCE.CURRENCY.eq(currency.getCurrencyID())).fetchOne();
-            if (balanceModel == null)
+            balanceModel = db.getDSL().newRecord(TABLE_BALANCE).newBalance(account, currency, context, defaultBalance(currency));
+            try
             {
-                balanceModel = db.getDSL().newRecord(TABLE_BALANCE).newBalance(account, currency, relevantCtx.get(), defaultBalance(currency));
                 balanceModel.store();
-                balances.put(relevantCtx.get(), balanceModel);
+            }
+            catch (DataAccessException e)
+            {
+                // created by another thread in the meantime
+                balanceModel = selectModel(currency, context);
+                if (balanceModel == null)
+                {
+                    throw e;
+                }
             }
         }
+        return balanceModel;
+    }
 
-        return Optional.of(balanceModel);
+    private BalanceModel selectModel(ConfigCurrency currency, Context context)
+    {
+        return db.getDSL().selectFrom(TABLE_BALANCE).where(TABLE_BALANCE.ACCOUNT_ID.eq(account.getID()))
+                .and(TABLE_BALANCE.CONTEXT.eq(context.getKey() + "|" + context.getValue()))
+                .and(TABLE_BALANCE.CURRENCY.eq(currency.getCurrencyID())).fetchOne();
+    }
+
+    /**
+     * Caches a balance loaded together with this account. Balances already loaded are kept.
+     */
+    void preloadBalance(BalanceModel model)
+    {
+        ConfigCurrency currency = service.getCurrency(model.getCurrency());
+        if (currency == null) // currency is no longer configured
+        {
+            return;
+        }
+        String[] context = model.getContext().split("\\|", 2);
+        this.balance.computeIfAbsent(currency, c -> new ConcurrentHashMap<>())
+                    .putIfAbsent(new Context(context[0], context.length == 2 ? context[1] : ""), new BalanceCell(model));
+    }
+
+    /**
+     * Sets a balance of this account. The lock of this account must be held.
+     */
+    private void updateBalance(BalanceCell cell, long balance)
+    {
+        cell.set(balance);
+        service.getBalanceWriter().markDirty(cell);
+        service.getLeaderboard().update(cell.getModel(), account.isUUID(), account.isHidden(), balance);
     }
 
     private ConfigCurrency cast(Currency currency)
@@ -168,7 +242,7 @@ public abstract class BaseAccount implements Account
     public boolean hasBalance(Currency currency, Set<Context> contexts)
     {
         ConfigCurrency cur = cast(currency);
-        return getModel(cur, contexts).isPresent();
+        return getCell(cur, contexts) != null;
     }
 
     @Override
@@ -177,27 +251,46 @@ public abstract class BaseAccount implements Account
         // TODO javadocs are unclear what to do if currency is not found in context
         // If no Balance available then ZERO
         ConfigCurrency cur = cast(currency);
-        return getModel(cur, contexts)
-                .map(BalanceModel::getBalance)
-                .map(cur::fromLong)
-                .orElse(BigDecimal.ZERO);
+        BalanceCell cell = getCell(cur, contexts);
+        return cell == null ? BigDecimal.ZERO : cur.fromLong(cell.get());
     }
 
     @Override
     public Map<Currency, BigDecimal> balances(Set<Context> ctxs)
     {
-        return service.getCurrencies().stream()
-                .collect(toMap(c -> c, c -> balance(c, ctxs)));
+        Map<Currency, BigDecimal> balances = new HashMap<>();
+        for (ConfigCurrency currency : service.getCurrencies())
+        {
+            balances.put(currency, balance(currency, ctxs));
+        }
+        return balances;
     }
 
     @Override
     public TransactionResult setBalance(Currency currency, BigDecimal amount, Set<Context> contexts)
     {
         ConfigCurrency cur = cast(currency);
-        Optional<BalanceModel> model = getModel(cur, contexts);
-        if (model.isPresent())
+        BalanceCell cell = getCell(cur, contexts);
+        if (cell != null)
         {
-            model.get().setBalance(cur.toLong(amount));
+            long value;
+            try
+            {
+                value = cur.toLong(amount);
+            }
+            catch (ArithmeticException e)
+            {
+                return new Result(this, currency, amount, contexts, FAILED, TRANSFER);
+            }
+            this.lock.lock();
+            try
+            {
+                updateBalance(cell, value);
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
             return new Result(this, currency, amount, contexts, SUCCESS, TRANSFER); // TODO TransactionType?
         }
         return new Result(this, currency, amount, contexts, CONTEXT_MISMATCH, TRANSFER);  // TODO TransactionType?
@@ -219,10 +312,31 @@ public abstract class BaseAccount implements Account
     public TransactionResult deposit(Currency currency, BigDecimal amount, Set<Context> contexts)
     {
         ConfigCurrency cur = cast(currency);
-        Optional<BalanceModel> model = getModel(cur, contexts);
-        if (model.isPresent())
+        BalanceCell cell = getCell(cur, contexts);
+        if (cell != null)
         {
-            model.get().setBalance(model.get().getBalance() + cur.toLong(amount));
+            long value;
+            try
+            {
+                value = cur.toLong(amount);
+            }
+            catch (ArithmeticException e)
+            {
+                return new Result(this, currency, amount, contexts, FAILED, DEPOSIT);
+            }
+            this.lock.lock();
+            try
+            {
+                updateBalance(cell, Math.addExact(cell.get(), value));
+            }
+            catch (ArithmeticException e)
+            {
+                return new Result(this, currency, amount, contexts, FAILED, DEPOSIT);
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
             // TODO check max
             return new Result(this, currency, amount, contexts, SUCCESS, DEPOSIT);
         }
@@ -233,22 +347,55 @@ public abstract class BaseAccount implements Account
     public TransactionResult withdraw(Currency currency, BigDecimal amount, Set<Context> contexts)
     {
         ConfigCurrency cur = cast(currency);
-        Optional<BalanceModel> model = getModel(cur, contexts);
-        if (model.isPresent())
+        BalanceCell cell = getCell(cur, contexts);
+        if (cell != null)
         {
-            long newBalance = model.get().getBalance() - cur.toLong(amount);
-            long min = cur.toLong(cur.getMin(this));
-
-            if (newBalance < min)
+            long value;
+            long min;
+            try
+            {
+                value = cur.toLong(amount);
+                min = cur.toLong(cur.getMin(this));
+            }
+            catch (ArithmeticException e)
+            {
+                return new Result(this, currency, amount, contexts, FAILED, WITHDRAW);
+            }
+            this.lock.lock();
+            try
+            {
+                if (!withdraw(cell, value, min))
+                {
+                    return new Result(this, currency, amount, contexts, ACCOUNT_NO_FUNDS, WITHDRAW);
+                }
+            }
+            catch (ArithmeticException e)
+            {
+                return new Result(this, currency, amount, contexts, FAILED, WITHDRAW);
+            }
+            finally
             {
-                return new Result(this, currency, amount, contexts, ACCOUNT_NO_FUNDS, WITHDRAW);
+                this.lock.unlock();
             }
-            model.get().setBalance(newBalance);
             return new Result(this, currency, amount, contexts, SUCCESS, WITHDRAW);
         }
         return new Result(this, currency, amount, contexts, CONTEXT_MISMATCH, WITHDRAW);
     }
 
+    /**
+     * Withdraws from a balance if the minimum balance is not undercut. The lock of this account must be held.
+     */
+    private boolean withdraw(BalanceCell cell, long amount, long min)
+    {
+        long newBalance = Math.subtractExact(cell.get(), amount);
+        if (newBalance < min)
+        {
+            return false;
+        }
+        updateBalance(cell, newBalance);
+        return true;
+    }
+
     @Override
     public TransferResult transfer(Account to, Currency currency, BigDecimal amount, Set<Context> contexts)
     {
@@ -259,6 +406,10 @@ public abstract class BaseAccount implements Account
         // TODO disallow user -> bank if not at least member of bank
         // TODO disallow bank -> user if cause is not admin?
         // TODO check for visibility of account for causer
+        if (to instanceof BaseAccount)
+        {
+            return this.transfer((BaseAccount) to, cast(currency), amount, contexts);
+        }
         TransactionResult result = this.withdraw(currency, amount, contexts);
         if (result.result() == SUCCESS)
         {
@@ -279,14 +430,81 @@ public abstract class BaseAccount implements Account
         }
     }
 
+    /**
+     * Transfers between two accounts of this service atomically.
+     * <p>The locks of both accounts are always acquired in the order of their stripe so concurrent transfers cannot deadlock.
+     */
+    private TransferResult transfer(BaseAccount to, ConfigCurrency cur, BigDecimal amount, Set<Context> contexts)
+    {
+        BalanceCell fromCell = this.getCell(cur, contexts);
+        BalanceCell toCell = to.getCell(cur, contexts);
+        if (fromCell == null || toCell == null)
+        {
+            return new Result.Transfer(this, to, cur, amount, contexts, CONTEXT_MISMATCH, TRANSFER);
+        }
+        long value;
+        long min;
+        try
+        {
+            value = cur.toLong(amount);
+            min = cur.toLong(cur.getMin(this));
+        }
+        catch (ArithmeticException e)
+        {
+            return new Result.Transfer(this, to, cur, amount, contexts, FAILED, TRANSFER);
+        }
+        Lock first = this.lockStripe <= to.lockStripe ? this.lock : to.lock;
+        Lock second = this.lockStripe <= to.lockStripe ? to.lock : this.lock;
+        first.lock();
+        if (second != first)
+        {
+            second.lock();
+        }
+        try
+        {
+            long toBalance = Math.addExact(toCell.get(), value);
+            if (!this.withdraw(fromCell, value, min))
+            {
+                return new Result.Transfer(this, to, cur, amount, contexts, ACCOUNT_NO_FUNDS, TRANSFER);
+            }
+            to.updateBalance(toCell, toBalance);
+            return new Result.Transfer(this, to, cur, amount, contexts, SUCCESS, TRANSFER);
+        }
+        catch (ArithmeticException e)
+        {
+            return new Result.Transfer(this, to, cur, amount, contexts, FAILED, TRANSFER);
+        }
+        finally
+        {
+            if (second != first)
+            {
+                second.unlock();
+            }
+            first.unlock();
+        }
+    }
+
     public boolean isHidden()
     {
         return account.isHidden();
     }
 
+    /**
+     * Hides or shows this account in the leaderboard.
+     * <p>Takes the lock of this account so a concurrent balance update cannot rank it with a stale flag.
+     */
     public void setHidden(boolean b)
     {
-        account.setHidden(b);
+        this.lock.lock();
+        try
+        {
+            account.setHidden(b);
+            service.getLeaderboard().setHidden(id, account.isUUID(), b);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
     }
 
     @Override
@@ -335,7 +553,7 @@ public abstract class BaseAccount implements Account
         {
             if (!invite)
             {
-                account.setHidden(false);
+                setHidden(false);
             }
             account.setInvite(invite);
         }
@@ -125,14 +125,19 @@ public class ConfigCurrency implements Currency
         return StringUtils.stripFileExtension(config.getFile().getName());
     }
 
+    /**
+     * Converts an amount to the stored representation
+     *
+     * @throws ArithmeticException if the amount has more fractional digits than the currency or is out of range
+     */
     public long toLong(BigDecimal balance)
     {
-        return (long)(balance.doubleValue() * config.fractionalDigitsFactor());
+        return balance.movePointRight(config.fractionalDigits).longValueExact();
     }
 
     public BigDecimal fromLong(long longBalance)
     {
-        return BigDecimal.valueOf(((double)longBalance / config.fractionalDigitsFactor()));
+        return BigDecimal.valueOf(longBalance, config.fractionalDigits);
     }
 
     public BigDecimal getDefaultBalance(BaseAccount baseAccount)
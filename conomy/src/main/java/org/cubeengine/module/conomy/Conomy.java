@@ -20,8 +20,11 @@ package org.cubeengine.module.conomy;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Collectors;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import org.apache.logging.log4j.Logger;
 import org.cubeengine.libcube.ModuleManager;
 import org.cubeengine.libcube.service.filesystem.FileManager;
 import org.cubeengine.libcube.service.filesystem.ModuleConfig;
@@ -36,11 +39,14 @@ import org.cubeengine.processor.Dependency;
 import org.cubeengine.processor.Module;
 import org.cubeengine.reflect.Reflector;
 import org.spongepowered.api.Server;
+import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.Command.Parameterized;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.lifecycle.ProvideServiceEvent;
 import org.spongepowered.api.event.lifecycle.RegisterCommandEvent;
 import org.spongepowered.api.event.lifecycle.StartedEngineEvent;
+import org.spongepowered.api.event.lifecycle.StoppingEngineEvent;
+import org.spongepowered.api.event.network.ServerSideConnectionEvent;
 import org.spongepowered.api.service.economy.EconomyService;
 import org.spongepowered.plugin.PluginContainer;
 
@@ -61,6 +67,7 @@ public class Conomy
     @Inject private ModuleManager mm;
     @Inject private FileManager fm;
     @Inject private PluginContainer plugin;
+    @Inject private Logger logger;
     private Path modulePath;
 
     private ConomyService service;
@@ -75,6 +82,25 @@ public class Conomy
 
         // we're doing this via permissions
 
+        getService().preloadAccounts(Sponge.server().onlinePlayers().stream()
+                                           .map(p -> p.uniqueId().toString()).collect(Collectors.toList()));
+        getService().getLeaderboard().load();
+    }
+
+    @Listener
+    public void onAuth(ServerSideConnectionEvent.Auth event)
+    {
+        // Auth is fired asynchronously - load the account before the player can use it
+        getService().preloadAccounts(Collections.singleton(event.profile().uniqueId().toString()));
+    }
+
+    @Listener
+    public void onStopping(StoppingEngineEvent<Server> event)
+    {
+        if (service != null)
+        {
+            service.getBalanceWriter().shutdown();
+        }
     }
 
     @Listener
@@ -109,11 +135,11 @@ public class Conomy
             }
             if (config.enableBanks)
             {
-                service = new BankConomyService(this, config, curencyPath, db, reflector, pm, plugin);
+                service = new BankConomyService(this, config, curencyPath, db, reflector, pm, plugin, logger);
             }
             else
             {
-                service = new ConomyService(this, config, curencyPath, db, reflector, pm, plugin);
+                service = new ConomyService(this, config, curencyPath, db, reflector, pm, plugin, logger);
             }
         }
         return service;
@@ -32,4 +32,8 @@ public class ConomyConfiguration extends ReflectedYaml
     public String defaultCurrency = "main";
 
     public boolean enableBanks = false;
+
+    @Comment("The interval in milliseconds in which changed balances are written to the database\n" +
+            "Changes not written yet are lost if the server crashes")
+    public long balanceFlushInterval = 1000;
 }
@@ -22,14 +22,20 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
+import org.apache.logging.log4j.Logger;
 import org.cubeengine.libcube.ModuleManager;
 import org.cubeengine.libcube.service.filesystem.FileExtensionFilter;
 import org.cubeengine.libcube.service.i18n.I18n;
@@ -37,14 +43,11 @@ import org.cubeengine.libcube.service.permission.PermissionManager;
 import org.cubeengine.module.conomy.command.EcoCommand;
 import org.cubeengine.module.conomy.command.MoneyCommand;
 import org.cubeengine.module.conomy.storage.AccountModel;
-import org.cubeengine.module.conomy.storage.BalanceModel;
+import org.cubeengine.module.conomy.storage.BalanceWriter;
 import org.cubeengine.module.sql.database.Database;
 import org.cubeengine.reflect.Reflector;
-import org.jooq.Condition;
-import org.jooq.Record4;
-import org.jooq.SelectConditionStep;
-import org.jooq.SelectJoinStep;
-import org.jooq.impl.DSL;
+import org.jooq.Record;
+import org.jooq.exception.DataAccessException;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.Command.Parameterized;
 import org.spongepowered.api.entity.living.player.User;
@@ -64,22 +67,42 @@ import static org.cubeengine.module.conomy.storage.TableBalance.TABLE_BALANCE;
 
 public class ConomyService implements EconomyService
 {
+    private static final int LOCK_STRIPES = 64;
+    private static final int MAX_MISSING = 4096;
     private ConfigCurrency defaultCurrency;
 
-    protected Map<String, Account> accounts = new HashMap<>();
+    protected Map<String, Account> accounts = new ConcurrentHashMap<>();
     private Map<String, ConfigCurrency> currencies = new HashMap<>();
     protected Conomy module;
     protected Database db;
     protected PluginContainer plugin;
 
     protected ConomyPermission perms;
+    private final BalanceWriter balanceWriter;
+    private final Leaderboard leaderboard;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    // ids known to have no account - bounded so lookups of random ids cannot grow it indefinitely
+    private final Map<String, Boolean> missing = new LinkedHashMap<String, Boolean>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest)
+        {
+            return size() > MAX_MISSING;
+        }
+    };
 
-    public ConomyService(Conomy module, ConomyConfiguration config, Path path, Database db, Reflector reflector, PermissionManager pm, PluginContainer plugin)
+    public ConomyService(Conomy module, ConomyConfiguration config, Path path, Database db, Reflector reflector, PermissionManager pm, PluginContainer plugin, Logger logger)
     {
         this.perms = new ConomyPermission(pm);
         this.module = module;
         this.db = db;
         this.plugin = plugin;
+        this.balanceWriter = new BalanceWriter(db, logger, config.balanceFlushInterval);
+        this.leaderboard = new Leaderboard(db);
+        for (int i = 0; i < locks.length; i++)
+        {
+            locks[i] = new ReentrantLock();
+        }
         try
         {
             for (Path file : Files.newDirectoryStream(path, FileExtensionFilter.YAML))
@@ -106,6 +129,30 @@ public class ConomyService implements EconomyService
         return perms;
     }
 
+    public BalanceWriter getBalanceWriter()
+    {
+        return balanceWriter;
+    }
+
+    /**
+     * Returns the index of the lock guarding the balances of an account.
+     * <p>Locks are shared by multiple accounts. Acquiring them in order of their index never deadlocks.
+     *
+     * @param id the account id
+     *
+     * @return the lock index
+     */
+    public int getLockStripe(String id)
+    {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    public Lock getLock(int stripe)
+    {
+        return locks[stripe];
+    }
+
     @Override
     public Stream<UniqueAccount> streamUniqueAccounts()
     {
@@ -156,6 +203,10 @@ public class ConomyService implements EconomyService
         {
             return true;
         }
+        if (isMissing(uuid.toString()))
+        {
+            return false;
+        }
         return loadAccount(uuid, false).isPresent();
     }
 
@@ -203,67 +254,186 @@ public class ConomyService implements EconomyService
 
     protected Optional<UniqueAccount> loadAccount(UUID uuid, boolean create)
     {
-        AccountModel model = loadModel(uuid.toString());
-        if (model == null || !model.isUUID())
+        String id = uuid.toString();
+        if (!accounts.containsKey(id))
         {
-            if (model != null)
+            preloadAccounts(Collections.singleton(id));
+        }
+        Account loaded = accounts.get(id);
+        if (loaded != null) // loaded by another thread - there must only be one instance holding the balances
+        {
+            return asUnique(loaded);
+        }
+        if (!isMissing(id))
+        {
+            AccountModel model = loadModel(id);
+            if (model != null) // not an uuid account
             {
                 model.deleteAsync();
             }
-            if (!create)
+        }
+        if (!create)
+        {
+            markMissing(id);
+            return Optional.empty();
+        }
+        AccountModel model;
+        try
+        {
+            model = createModel(uuid);
+        }
+        catch (DataAccessException e)
+        {
+            // created by another thread in the meantime
+            preloadAccounts(Collections.singleton(id));
+            loaded = accounts.get(id);
+            if (loaded == null)
             {
-                return Optional.empty();
+                throw e;
             }
-            model = createModel(uuid);
+            return asUnique(loaded);
         }
-        UniqueAccount acc = new BaseAccount.Unique(this, model, db);
-        accounts.put(uuid.toString(), acc);
-        return Optional.of(acc);
+        return asUnique(publish(id, new BaseAccount.Unique(this, model, db)));
     }
 
-    private AccountModel createModel(UUID uuid)
+    private static Optional<UniqueAccount> asUnique(Account account)
     {
-        Optional<User> user = Sponge.server().userManager().load(uuid).join();
-        AccountModel model = db.getDSL().newRecord(TABLE_ACCOUNT).newAccount(uuid, user.map(User::name).orElse(uuid.toString()), false, false);
-        model.store();
-        return model;
+        return account instanceof UniqueAccount ? Optional.of((UniqueAccount) account) : Optional.empty();
     }
 
-    protected AccountModel loadModel(String id)
+    /**
+     * Loads accounts together with all their balances using a single query.
+     * <p>Accounts already loaded are skipped. Ids without an account are remembered as missing.
+     * <p>Accounts are only published once all their balances are attached.
+     *
+     * @param ids the account ids
+     */
+    public void preloadAccounts(Collection<String> ids)
     {
-        return db.getDSL().selectFrom(TABLE_ACCOUNT).where(TABLE_ACCOUNT.ID.eq(id)).fetchOne();
+        List<String> toLoad = new ArrayList<>();
+        for (String id : ids)
+        {
+            if (!accounts.containsKey(id))
+            {
+                toLoad.add(id);
+            }
+        }
+        if (toLoad.isEmpty())
+        {
+            return;
+        }
+        Map<String, BaseAccount> loaded = new HashMap<>();
+        for (Record record : db.getDSL().select()
+                                 .from(TABLE_ACCOUNT.leftJoin(TABLE_BALANCE).on(TABLE_BALANCE.ACCOUNT_ID.eq(TABLE_ACCOUNT.ID)))
+                                 .where(TABLE_ACCOUNT.ID.in(toLoad)).fetch())
+        {
+            String id = record.get(TABLE_ACCOUNT.ID);
+            if (!loaded.containsKey(id))
+            {
+                loaded.put(id, createAccount(record.into(TABLE_ACCOUNT)));
+            }
+            BaseAccount account = loaded.get(id);
+            if (account != null && record.get(TABLE_BALANCE.ACCOUNT_ID) != null) // left join without any balance
+            {
+                account.preloadBalance(record.into(TABLE_BALANCE));
+            }
+        }
+        for (String id : toLoad)
+        {
+            if (!loaded.containsKey(id))
+            {
+                markMissing(id);
+            }
+            else if (loaded.get(id) != null)
+            {
+                publish(id, loaded.get(id));
+            }
+        }
     }
 
-    public Collection<BalanceModel> getTopBalance(boolean user, boolean bank, int fromRank, int toRank, boolean showHidden)
+    /**
+     * Publishes a fully loaded account unless another thread published one first
+     *
+     * @return the published account
+     */
+    protected synchronized Account publish(String id, Account account)
     {
-        SelectJoinStep<Record4<String, String, String, Long>> from = db.getDSL()
-                .select(TABLE_BALANCE.ACCOUNT_ID, TABLE_BALANCE.CURRENCY, TABLE_BALANCE.CONTEXT, TABLE_BALANCE.BALANCE)
-                .from(TABLE_BALANCE.join(TABLE_ACCOUNT).on(TABLE_BALANCE.ACCOUNT_ID.eq(TABLE_ACCOUNT.ID)));
-        Condition userCond = TABLE_ACCOUNT.IS_UUID.eq(true);
-        Condition bankCond = TABLE_ACCOUNT.IS_UUID.eq(false);
-        SelectConditionStep<Record4<String, String, String, Long>> where;
-        if (!user && !bank)
+        Account published = accounts.putIfAbsent(id, account);
+        if (published != null)
         {
-            throw new IllegalArgumentException();
+            return published;
         }
-        if (user)
+        clearMissing(id);
+        return account;
+    }
+
+    /**
+     * Creates the account for a loaded model
+     *
+     * @return the account or null if this service does not handle accounts of that type
+     */
+    protected BaseAccount createAccount(AccountModel model)
+    {
+        return model.isUUID() ? new BaseAccount.Unique(this, model, db) : null;
+    }
+
+    protected boolean isMissing(String id)
+    {
+        synchronized (missing)
         {
-            where = from.where(userCond);
+            return missing.containsKey(id);
         }
-        else if (bank)
+    }
+
+    /**
+     * Remembers an id as missing unless an account was published for it in the meantime
+     */
+    protected synchronized void markMissing(String id)
+    {
+        if (accounts.containsKey(id))
         {
-            where = from.where(bankCond);
+            return;
         }
-        else
+        synchronized (missing)
         {
-            where = from.where(DSL.condition(true));
+            missing.put(id, true);
         }
+    }
 
-        if (!showHidden)
+    protected void clearMissing(String id)
+    {
+        synchronized (missing)
         {
-            where = where.and(TABLE_ACCOUNT.HIDDEN.eq(false));
+            missing.remove(id);
         }
-        return where.orderBy(TABLE_BALANCE.BALANCE.desc()).limit(fromRank - 1, toRank - fromRank + 1).fetchInto(BalanceModel.class);
+    }
+
+    private AccountModel createModel(UUID uuid)
+    {
+        Optional<User> user = Sponge.server().userManager().load(uuid).join();
+        AccountModel model = db.getDSL().newRecord(TABLE_ACCOUNT).newAccount(uuid, user.map(User::name).orElse(uuid.toString()), false, false);
+        model.store();
+        return model;
+    }
+
+    protected AccountModel loadModel(String id)
+    {
+        return db.getDSL().selectFrom(TABLE_ACCOUNT).where(TABLE_ACCOUNT.ID.eq(id)).fetchOne();
+    }
+
+    /**
+     * Returns the balances ranked from fromRank to toRank
+     *
+     * @param user true for user accounts, false for bank accounts
+     */
+    public List<Leaderboard.Entry> getTopBalance(ConfigCurrency currency, Context context, boolean user, int fromRank, int toRank, boolean showHidden)
+    {
+        return leaderboard.top(currency, context, user, showHidden, fromRank, toRank);
+    }
+
+    public Leaderboard getLeaderboard()
+    {
+        return leaderboard;
     }
 
     public ConfigCurrency getCurrency(String currency)
@@ -0,0 +1,424 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.cubeengine.module.conomy.storage.BalanceModel;
+import org.cubeengine.module.sql.database.Database;
+import org.jooq.Cursor;
+import org.jooq.Record6;
+import org.spongepowered.api.service.context.Context;
+
+import static org.cubeengine.module.conomy.storage.TableAccount.TABLE_ACCOUNT;
+import static org.cubeengine.module.conomy.storage.TableBalance.TABLE_BALANCE;
+
+/**
+ * Ranks the balances of all accounts per currency and context.
+ * <p>The rankings are loaded from the database once and then kept up to date with every balance change.
+ * Looking up a rank or a range of ranks takes logarithmic time.
+ */
+public class Leaderboard
+{
+    private final Database db;
+    private final Map<String, Map<String, Ranking>> users = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Ranking>> banks = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    public Leaderboard(Database db)
+    {
+        this.db = db;
+    }
+
+    /**
+     * Loads all balances from the database unless already done.
+     * <p>Balances changed before loading are newer than the database and are kept.
+     */
+    public void load()
+    {
+        if (loaded)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            if (loaded)
+            {
+                return;
+            }
+            try (Cursor<Record6<String, String, String, Long, Boolean, Boolean>> cursor = db.getDSL()
+                    .select(TABLE_BALANCE.ACCOUNT_ID, TABLE_BALANCE.CURRENCY, TABLE_BALANCE.CONTEXT, TABLE_BALANCE.BALANCE, TABLE_ACCOUNT.IS_UUID, TABLE_ACCOUNT.HIDDEN)
+                    .from(TABLE_BALANCE.join(TABLE_ACCOUNT).on(TABLE_BALANCE.ACCOUNT_ID.eq(TABLE_ACCOUNT.ID)))
+                    .fetchLazy())
+            {
+                for (Record6<String, String, String, Long, Boolean, Boolean> r : cursor)
+                {
+                    getRanking(Boolean.TRUE.equals(r.value5()), r.value2(), r.value3())
+                        .update(r.value1(), r.value4(), Boolean.TRUE.equals(r.value6()), false);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * Updates the balance of an account
+     *
+     * @param model the balance
+     * @param user whether the account is a user account
+     * @param hidden whether the account is hidden
+     * @param balance the new balance
+     */
+    public void update(BalanceModel model, boolean user, boolean hidden, long balance)
+    {
+        getRanking(user, model.getCurrency(), model.getContext()).update(model.getAccountID(), balance, hidden, true);
+    }
+
+    public void setHidden(String accountId, boolean user, boolean hidden)
+    {
+        for (Map<String, Ranking> rankings : (user ? users : banks).values())
+        {
+            for (Ranking ranking : rankings.values())
+            {
+                ranking.setHidden(accountId, hidden);
+            }
+        }
+    }
+
+    /**
+     * Returns the balances ranked from fromRank to toRank. Ranks start at 1.
+     */
+    public List<Entry> top(ConfigCurrency currency, Context context, boolean user, boolean showHidden, int fromRank, int toRank)
+    {
+        load();
+        Ranking ranking = findRanking(user, currency, context);
+        if (ranking == null || toRank < fromRank)
+        {
+            return Collections.emptyList();
+        }
+        return ranking.range(showHidden, Math.max(fromRank, 1) - 1, toRank);
+    }
+
+    /**
+     * Returns the rank of an account starting at 1
+     *
+     * @return the rank or -1 if the account has no balance or is hidden
+     */
+    public int rank(String accountId, ConfigCurrency currency, Context context, boolean user, boolean showHidden)
+    {
+        load();
+        Ranking ranking = findRanking(user, currency, context);
+        return ranking == null ? -1 : ranking.rank(accountId, showHidden);
+    }
+
+    /**
+     * Returns the amount of ranked accounts
+     */
+    public int size(ConfigCurrency currency, Context context, boolean user, boolean showHidden)
+    {
+        load();
+        Ranking ranking = findRanking(user, currency, context);
+        return ranking == null ? 0 : ranking.size(showHidden);
+    }
+
+    private Ranking getRanking(boolean user, String currency, String context)
+    {
+        return (user ? users : banks).computeIfAbsent(currency, c -> new ConcurrentHashMap<>())
+                                     .computeIfAbsent(context, c -> new Ranking());
+    }
+
+    private Ranking findRanking(boolean user, ConfigCurrency currency, Context context)
+    {
+        Map<String, Ranking> rankings = (user ? users : banks).get(currency.getCurrencyID());
+        return rankings == null ? null : rankings.get(context.getKey() + "|" + context.getValue());
+    }
+
+    public static final class Entry
+    {
+        private final String accountId;
+        private final long balance;
+
+        private Entry(String accountId, long balance)
+        {
+            this.accountId = accountId;
+            this.balance = balance;
+        }
+
+        public String getAccountID()
+        {
+            return accountId;
+        }
+
+        public long getBalance()
+        {
+            return balance;
+        }
+    }
+
+    /**
+     * The balances of one currency and context. Hidden accounts are only ranked in {@link #all}.
+     */
+    private static final class Ranking
+    {
+        private final Map<String, State> states = new HashMap<>();
+        private final Tree all = new Tree();
+        private final Tree visible = new Tree();
+
+        /**
+         * @param replace false to keep an already ranked balance
+         */
+        synchronized void update(String id, long balance, boolean hidden, boolean replace)
+        {
+            State state = states.get(id);
+            if (state == null)
+            {
+                state = new State();
+                states.put(id, state);
+            }
+            else
+            {
+                if (!replace || (state.balance == balance && state.hidden == hidden))
+                {
+                    return;
+                }
+                all.remove(state.balance, id);
+                if (!state.hidden)
+                {
+                    visible.remove(state.balance, id);
+                }
+            }
+            state.balance = balance;
+            state.hidden = hidden;
+            all.insert(balance, id);
+            if (!hidden)
+            {
+                visible.insert(balance, id);
+            }
+        }
+
+        synchronized void setHidden(String id, boolean hidden)
+        {
+            State state = states.get(id);
+            if (state == null || state.hidden == hidden)
+            {
+                return;
+            }
+            state.hidden = hidden;
+            if (hidden)
+            {
+                visible.remove(state.balance, id);
+            }
+            else
+            {
+                visible.insert(state.balance, id);
+            }
+        }
+
+        synchronized List<Entry> range(boolean showHidden, int from, int to)
+        {
+            List<Entry> list = new ArrayList<>();
+            Tree.collect((showHidden ? all : visible).root, from, to, list);
+            return list;
+        }
+
+        synchronized int rank(String id, boolean showHidden)
+        {
+            State state = states.get(id);
+            if (state == null || (state.hidden && !showHidden))
+            {
+                return -1;
+            }
+            return (showHidden ? all : visible).rank(state.balance, id) + 1;
+        }
+
+        synchronized int size(boolean showHidden)
+        {
+            return Tree.size((showHidden ? all : visible).root);
+        }
+    }
+
+    private static final class State
+    {
+        private long balance;
+        private boolean hidden;
+    }
+
+    /**
+     * A treap ordered by balance descending and account id ascending. Every node knows the size of its subtree.
+     */
+    private static final class Tree
+    {
+        private Node root;
+
+        void insert(long balance, String id)
+        {
+            Node[] parts = split(root, balance, id);
+            root = merge(merge(parts[0], new Node(id, balance)), parts[1]);
+        }
+
+        /**
+         * Removes a node which must be in this tree
+         */
+        void remove(long balance, String id)
+        {
+            Node[] parts = split(root, balance, id);
+            root = merge(parts[0], removeFirst(parts[1]));
+        }
+
+        /**
+         * Returns the amount of nodes ordered before given key
+         */
+        int rank(long balance, String id)
+        {
+            int rank = 0;
+            Node node = root;
+            while (node != null)
+            {
+                if (isBefore(node, balance, id))
+                {
+                    rank += size(node.left) + 1;
+                    node = node.right;
+                }
+                else
+                {
+                    node = node.left;
+                }
+            }
+            return rank;
+        }
+
+        /**
+         * Collects the nodes from index from (inclusive) to index to (exclusive) in order
+         */
+        static void collect(Node node, int from, int to, List<Entry> into)
+        {
+            if (node == null || from >= to)
+            {
+                return;
+            }
+            int leftSize = size(node.left);
+            if (from < leftSize)
+            {
+                collect(node.left, from, Math.min(to, leftSize), into);
+            }
+            if (from <= leftSize && leftSize < to)
+            {
+                into.add(new Entry(node.id, node.balance));
+            }
+            if (to > leftSize + 1)
+            {
+                collect(node.right, Math.max(from - leftSize - 1, 0), to - leftSize - 1, into);
+            }
+        }
+
+        static int size(Node node)
+        {
+            return node == null ? 0 : node.size;
+        }
+
+        private static boolean isBefore(Node node, long balance, String id)
+        {
+            return node.balance > balance || (node.balance == balance && node.id.compareTo(id) < 0);
+        }
+
+        /**
+         * Splits into the nodes ordered before given key and all others
+         */
+        private static Node[] split(Node node, long balance, String id)
+        {
+            if (node == null)
+            {
+                return new Node[2];
+            }
+            if (isBefore(node, balance, id))
+            {
+                Node[] parts = split(node.right, balance, id);
+                node.right = parts[0];
+                node.updateSize();
+                parts[0] = node;
+                return parts;
+            }
+            Node[] parts = split(node.left, balance, id);
+            node.left = parts[1];
+            node.updateSize();
+            parts[1] = node;
+            return parts;
+        }
+
+        /**
+         * Merges two trees where all nodes of the first are ordered before the nodes of the second
+         */
+        private static Node merge(Node first, Node second)
+        {
+            if (first == null)
+            {
+                return second;
+            }
+            if (second == null)
+            {
+                return first;
+            }
+            if (first.priority > second.priority)
+            {
+                first.right = merge(first.right, second);
+                first.updateSize();
+                return first;
+            }
+            second.left = merge(first, second.left);
+            second.updateSize();
+            return second;
+        }
+
+        private static Node removeFirst(Node node)
+        {
+            if (node.left == null)
+            {
+                return node.right;
+            }
+            node.left = removeFirst(node.left);
+            node.updateSize();
+            return node;
+        }
+    }
+
+    private static final class Node
+    {
+        private final String id;
+        private final long balance;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(String id, long balance)
+        {
+            this.id = id;
+            this.balance = balance;
+        }
+
+        private void updateSize()
+        {
+            this.size = Tree.size(left) + Tree.size(right) + 1;
+        }
+    }
+}
@@ -20,11 +20,13 @@ package org.cubeengine.module.conomy.bank;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.apache.logging.log4j.Logger;
 import org.cubeengine.libcube.ModuleManager;
 import org.cubeengine.libcube.service.i18n.I18n;
 import org.cubeengine.libcube.service.permission.PermissionManager;
@@ -37,6 +39,7 @@ import org.cubeengine.module.conomy.bank.command.BankCommand;
 import org.cubeengine.module.conomy.storage.AccountModel;
 import org.cubeengine.module.sql.database.Database;
 import org.cubeengine.reflect.Reflector;
+import org.jooq.exception.DataAccessException;
 import org.spongepowered.api.command.Command.Parameterized;
 import org.spongepowered.api.event.lifecycle.RegisterCommandEvent;
 import org.spongepowered.api.service.economy.account.Account;
@@ -51,9 +54,9 @@ public class BankConomyService extends ConomyService
 
     private final BankPermission bankPerms;
 
-    public BankConomyService(Conomy module, ConomyConfiguration config, Path path, Database db, Reflector reflector, PermissionManager pm, PluginContainer plugin)
+    public BankConomyService(Conomy module, ConomyConfiguration config, Path path, Database db, Reflector reflector, PermissionManager pm, PluginContainer plugin, Logger logger)
     {
-        super(module, config, path, db, reflector, pm, plugin);
+        super(module, config, path, db, reflector, pm, plugin, logger);
         bankPerms = new BankPermission(pm);
     }
 
@@ -78,31 +81,52 @@ public class BankConomyService extends ConomyService
     @Override
     public boolean hasAccount(String identifier)
     {
-        return super.hasAccount(identifier) || accounts.get(identifier) != null || loadAccount(identifier, false).isPresent();
+        return super.hasAccount(identifier) || accounts.get(identifier) != null
+            || (!isMissing(identifier) && loadAccount(identifier, false).isPresent());
     }
 
     protected Optional<Account> loadAccount(String name, boolean create)
     {
-        AccountModel model = loadModel(name);
-        if (model == null)
+        if (!accounts.containsKey(name))
+        {
+            preloadAccounts(Collections.singleton(name));
+        }
+        Account loaded = accounts.get(name);
+        if (loaded != null) // loaded by another thread
+        {
+            return Optional.of(loaded);
+        }
+        if (!create)
+        {
+            return Optional.empty();
+        }
+        AccountModel model;
+        try
         {
-            if (!create)
-            {
-                return Optional.empty();
-            }
             model = createModel(name);
         }
-        Account account;
-        if (model.isUUID())
+        catch (DataAccessException e)
         {
-            account = new BaseAccount.Unique(this, model, db);
+            // created by another thread in the meantime
+            preloadAccounts(Collections.singleton(name));
+            loaded = accounts.get(name);
+            if (loaded == null)
+            {
+                throw e;
+            }
+            return Optional.of(loaded);
         }
-        else
+        return Optional.of(publish(name, createAccount(model)));
+    }
+
+    @Override
+    protected BaseAccount createAccount(AccountModel model)
+    {
+        if (model.isUUID())
         {
-            account = new BaseAccount.Virtual(this, model, db);
+            return new BaseAccount.Unique(this, model, db);
         }
-        this.accounts.put(account.identifier(), account);
-        return Optional.of(account);
+        return new BaseAccount.Virtual(this, model, db);
     }
 
     private AccountModel createModel(String name)
@@ -26,6 +26,7 @@ import org.cubeengine.libcube.service.command.annotation.Using;
 import org.cubeengine.libcube.service.i18n.I18n;
 import org.cubeengine.module.conomy.BaseAccount;
 import org.cubeengine.module.conomy.ConomyService;
+import org.cubeengine.module.conomy.storage.BalanceWriter;
 import org.spongepowered.api.command.CommandCause;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.service.economy.Currency;
@@ -214,6 +215,23 @@ public class EcoCommand extends DispatcherCommand
         }
     }
 
+    @Command(desc = "Writes all changed balances to the database")
+    public void save(CommandCause context)
+    {
+        service.getBalanceWriter().flush();
+        i18n.send(context, POSITIVE, "All balances are saved!");
+    }
+
+    @Command(desc = "Shows statistics of writing balances to the database")
+    public void saveStats(CommandCause context)
+    {
+        BalanceWriter writer = service.getBalanceWriter();
+        i18n.send(context, NEUTRAL, "Pending: {amount} Written: {amount} Coalesced: {amount} Flushes: {amount} Failed: {amount}",
+                  writer.getPending(), writer.getWrites(), writer.getCoalesced(), writer.getFlushes(), writer.getFailures());
+        i18n.send(context, NEUTRAL, "Average lag: {decimal:2}ms Max lag: {decimal:2}ms Oldest pending: {decimal:2}ms",
+                  writer.getAverageLagMillis(), writer.getMaxLagMillis(), writer.getOldestPendingMillis());
+    }
+
     //@Command(desc = "Deletes a users account.")
     // TODO public void delete(CommandSource context, User player)
 
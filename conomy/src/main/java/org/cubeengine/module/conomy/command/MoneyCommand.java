@@ -21,9 +21,13 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import net.kyori.adventure.identity.Identity;
@@ -42,10 +46,11 @@ import org.cubeengine.module.conomy.BaseAccount;
 import org.cubeengine.module.conomy.ConfigCurrency;
 import org.cubeengine.module.conomy.Conomy;
 import org.cubeengine.module.conomy.ConomyService;
-import org.cubeengine.module.conomy.storage.BalanceModel;
+import org.cubeengine.module.conomy.Leaderboard;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.CommandCause;
 import org.spongepowered.api.entity.living.player.User;
+import org.spongepowered.api.service.context.Context;
 import org.spongepowered.api.service.economy.Currency;
 import org.spongepowered.api.service.economy.account.Account;
 import org.spongepowered.api.service.economy.transaction.TransferResult;
@@ -118,7 +123,14 @@ public class MoneyCommand extends DispatcherCommand
                 return;
             }
         }
-        Collection<BalanceModel> models = this.service.getTopBalance(true, false, fromRank, toRank, service.getPerms().ACCESS_SEE.check(context));
+        ConfigCurrency currency = (ConfigCurrency) service.defaultCurrency();
+        Context ctx = getRankedContext(context, currency);
+        if (ctx == null)
+        {
+            return;
+        }
+        List<Leaderboard.Entry> entries = this.service.getTopBalance(currency, ctx, true, fromRank, toRank, service.getPerms().ACCESS_SEE.check(context));
+        service.preloadAccounts(entries.stream().map(Leaderboard.Entry::getAccountID).collect(Collectors.toList()));
         int i = fromRank;
 
 
@@ -126,33 +138,62 @@ public class MoneyCommand extends DispatcherCommand
         pagination.padding(Component.text("-"));
         if (fromRank == 1)
         {
-            pagination.title(i18n.translate(context, POSITIVE, "Top Balance ({amount})", models.size()));
+            pagination.title(i18n.translate(context, POSITIVE, "Top Balance ({amount})", entries.size()));
         }
         else
         {
-            pagination.title(i18n.translate(context, POSITIVE, "Top Balance from {integer} to {integer}", fromRank, fromRank + models.size() - 1));
+            pagination.title(i18n.translate(context, POSITIVE, "Top Balance from {integer} to {integer}", fromRank, fromRank + entries.size() - 1));
         }
         List<Component> texts = new ArrayList<>();
-        for (BalanceModel balance : models)
+        for (Leaderboard.Entry entry : entries)
         {
-            Account account = service.findOrCreateAccount(balance.getAccountID()).get();
-            ConfigCurrency currency = service.getCurrency(balance.getCurrency());
-            if (currency == null)
-            {
-                texts.add(Component.text( "?" + balance.getCurrency() + "? : " + balance.getBalance(), CRITICAL));
-            }
-            else
-            {
-                texts.add(Component.text(i++).append(Component.text(" - ", NamedTextColor.WHITE))
-                         .append(account.displayName().color(NamedTextColor.DARK_GREEN))
-                         .append(Component.text(":", NamedTextColor.WHITE))
-                         .append(Component.text(currency.fromLong(balance.getBalance()).longValue(), NamedTextColor.GOLD)));
-            }
+            Account account = service.findOrCreateAccount(entry.getAccountID()).get();
+            texts.add(Component.text(i++).append(Component.text(" - ", NamedTextColor.WHITE))
+                     .append(account.displayName().color(NamedTextColor.DARK_GREEN))
+                     .append(Component.text(":", NamedTextColor.WHITE))
+                     .append(Component.text(currency.fromLong(entry.getBalance()).longValue(), NamedTextColor.GOLD)));
         }
         pagination.contents(texts);
         pagination.sendTo(context.audience());
     }
 
+    /**
+     * Returns the context the currency is ranked in for the active contexts of the command source
+     *
+     * @return the context or null if the currency is not available in those contexts
+     */
+    private Context getRankedContext(CommandCause context, ConfigCurrency currency)
+    {
+        Set<Context> active = new HashSet<>(Sponge.server().serviceProvider().permissionService().contextsFor(context.contextCause()));
+        Optional<Context> ctx = currency.getRelevantContext(active);
+        if (!ctx.isPresent())
+        {
+            i18n.send(context, NEGATIVE, "{input#name} is not ranked in your current context!", currency.getName());
+            return null;
+        }
+        return ctx.get();
+    }
+
+    @Command(desc = "Shows the rank of a balance in the toplist.")
+    public void rank(CommandCause context, @Default BaseAccount.Unique account)
+    {
+        ConfigCurrency currency = (ConfigCurrency) service.defaultCurrency();
+        Context ctx = getRankedContext(context, currency);
+        if (ctx == null)
+        {
+            return;
+        }
+        boolean showHidden = service.getPerms().ACCESS_SEE.check(context);
+        int rank = service.getLeaderboard().rank(account.identifier(), currency, ctx, true, showHidden);
+        if (rank == -1)
+        {
+            i18n.send(context, NEGATIVE, "{account} is not ranked!", account);
+            return;
+        }
+        i18n.send(context, POSITIVE, "{account} is ranked {integer} of {integer}", account, rank,
+                  service.getLeaderboard().size(currency, ctx, true, showHidden));
+    }
+
     @Alias(value = "pay")
     @Command(alias = "give", desc = "Transfer the given amount to another account.")
     public void pay(CommandCause context, Collection<User> users, Double amount, @Default @Named("as") BaseAccount.Unique source)
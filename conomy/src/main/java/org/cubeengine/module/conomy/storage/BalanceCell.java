@@ -0,0 +1,65 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy.storage;
+
+import org.jooq.DSLContext;
+import org.jooq.Query;
+
+/**
+ * The balance of an account in one currency and context.
+ * <p>The balance is held as a primitive and is authoritative. The {@link BalanceModel} only identifies the row it is written to.
+ * Changes must be made while holding the lock of the account. Reading does not need a lock.
+ */
+public final class BalanceCell
+{
+    private final BalanceModel model;
+    private volatile long balance;
+
+    public BalanceCell(BalanceModel model)
+    {
+        this.model = model;
+        this.balance = model.getBalance();
+    }
+
+    public long get()
+    {
+        return balance;
+    }
+
+    public void set(long balance)
+    {
+        this.balance = balance;
+    }
+
+    public BalanceModel getModel()
+    {
+        return model;
+    }
+
+    /**
+     * Returns a query writing the current balance
+     *
+     * @param dsl the dsl
+     *
+     * @return the query
+     */
+    Query update(DSLContext dsl)
+    {
+        return model.updateBalance(dsl, this.balance);
+    }
+}
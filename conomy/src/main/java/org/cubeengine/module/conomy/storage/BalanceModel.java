@@ -20,6 +20,8 @@ package org.cubeengine.module.conomy.storage;
 import java.math.BigDecimal;
 import org.cubeengine.module.conomy.ConfigCurrency;
 import org.cubeengine.module.sql.database.AsyncRecord;
+import org.jooq.DSLContext;
+import org.jooq.Query;
 import org.spongepowered.api.service.context.Context;
 import org.spongepowered.api.service.economy.Currency;
 
@@ -47,10 +49,20 @@ public class BalanceModel extends AsyncRecord<BalanceModel>
         return getValue(TABLE_BALANCE.BALANCE);
     }
 
-    public void setBalance(Long amount)
+    /**
+     * Returns a query updating only the balance in the database
+     *
+     * @param dsl the dsl
+     * @param balance the balance
+     *
+     * @return the query
+     */
+    public Query updateBalance(DSLContext dsl, long balance)
     {
-        setValue(TABLE_BALANCE.BALANCE, amount);
-        this.store();
+        return dsl.update(TABLE_BALANCE).set(TABLE_BALANCE.BALANCE, balance)
+                  .where(TABLE_BALANCE.ACCOUNT_ID.eq(getAccountID()))
+                  .and(TABLE_BALANCE.CURRENCY.eq(getCurrency()))
+                  .and(TABLE_BALANCE.CONTEXT.eq(getContext()));
     }
 
     public String getAccountID()
@@ -0,0 +1,238 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy.storage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.Logger;
+import org.cubeengine.libcube.service.task.thread.BaseThreadFactory;
+import org.cubeengine.module.sql.database.Database;
+import org.jooq.Query;
+
+/**
+ * Writes changed balances to the database in the background.
+ * <p>The balances held in memory are authoritative. Changed balances are written in a single batch once per flush interval,
+ * so a balance changed multiple times in between is only updated once.
+ */
+public class BalanceWriter
+{
+    private final Database db;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+    private final Object flushLock = new Object();
+    private volatile boolean shutdown = false;
+
+    /**
+     * The changed balances and when they were changed first. Guarded by this.
+     */
+    private Map<BalanceCell, Long> dirty = new IdentityHashMap<>();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lagNanos = new LongAdder();
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0);
+
+    public BalanceWriter(Database db, Logger logger, long flushIntervalMillis)
+    {
+        this.db = db;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new WriterThreadFactory());
+        this.executor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules the balance to be written with the next flush.
+     * <p>After {@link #shutdown()} the balance is written immediately on the calling thread.
+     *
+     * @param balance the changed balance
+     */
+    public void markDirty(BalanceCell balance)
+    {
+        long now = System.nanoTime();
+        synchronized (this)
+        {
+            if (this.dirty.putIfAbsent(balance, now) != null)
+            {
+                this.coalesced.increment();
+            }
+        }
+        if (this.shutdown)
+        {
+            this.flush();
+            if (this.getPending() != 0)
+            {
+                this.logger.error("A balance changed after shutting down could not be written!");
+            }
+        }
+    }
+
+    /**
+     * Writes all changed balances on the calling thread
+     */
+    public void flush()
+    {
+        synchronized (this.flushLock)
+        {
+            Map<BalanceCell, Long> batch;
+            synchronized (this)
+            {
+                if (this.dirty.isEmpty())
+                {
+                    return;
+                }
+                batch = this.dirty;
+                this.dirty = new IdentityHashMap<>();
+            }
+
+            List<Query> queries = new ArrayList<>(batch.size());
+            for (BalanceCell balance : batch.keySet())
+            {
+                queries.add(balance.update(this.db.getDSL()));
+            }
+            try
+            {
+                this.db.getDSL().batch(queries).execute();
+            }
+            catch (RuntimeException e)
+            {
+                this.failures.increment();
+                this.logger.error("Could not write {} balances. Retrying with the next flush.", batch.size(), e);
+                synchronized (this)
+                {
+                    for (Entry<BalanceCell, Long> entry : batch.entrySet())
+                    {
+                        this.dirty.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                }
+                return;
+            }
+
+            long now = System.nanoTime();
+            for (Long changed : batch.values())
+            {
+                this.lagNanos.add(now - changed);
+                this.maxLagNanos.accumulate(now - changed);
+            }
+            this.writes.add(batch.size());
+            this.flushes.increment();
+        }
+    }
+
+    /**
+     * Writes all changed balances and stops the writer. Balances changed afterwards are written synchronously.
+     */
+    public void shutdown()
+    {
+        this.shutdown = true;
+        this.executor.shutdown();
+        try
+        {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS))
+            {
+                this.logger.warn("Timed out waiting for balances to be written");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+        int pending = this.getPending();
+        if (pending != 0)
+        {
+            this.logger.error("{} balances could not be written!", pending);
+        }
+    }
+
+    public synchronized int getPending()
+    {
+        return this.dirty.size();
+    }
+
+    /**
+     * Returns how long the oldest change not written yet is pending. This is the amount of time changes could be lost.
+     */
+    public synchronized double getOldestPendingMillis()
+    {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (Long changed : this.dirty.values())
+        {
+            oldest = Math.max(oldest, now - changed);
+        }
+        return oldest / 1_000_000d;
+    }
+
+    public long getFlushes()
+    {
+        return this.flushes.sum();
+    }
+
+    public long getWrites()
+    {
+        return this.writes.sum();
+    }
+
+    public long getCoalesced()
+    {
+        return this.coalesced.sum();
+    }
+
+    public long getFailures()
+    {
+        return this.failures.sum();
+    }
+
+    /**
+     * Returns the average time from the first change of a balance to it being written
+     */
+    public double getAverageLagMillis()
+    {
+        long writes = this.writes.sum();
+        return writes == 0 ? 0 : this.lagNanos.sum() / 1_000_000d / writes;
+    }
+
+    public double getMaxLagMillis()
+    {
+        return this.maxLagNanos.get() / 1_000_000d;
+    }
+
+    private static class WriterThreadFactory extends BaseThreadFactory
+    {
+        public WriterThreadFactory()
+        {
+            super("CubeEngine" + " - " + BalanceWriter.class.getSimpleName(), BalanceWriter.class.getPackage().getName());
+        }
+
+        @Override
+        protected Thread createThread(ThreadGroup threadGroup, Runnable r, String name)
+        {
+            return new Thread(threadGroup, r, name);
+        }
+    }
+}
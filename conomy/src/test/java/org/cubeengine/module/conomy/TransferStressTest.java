@@ -0,0 +1,155 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.conomy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.cubeengine.libcube.service.permission.PermissionManager;
+import org.cubeengine.module.conomy.storage.TableAccount;
+import org.cubeengine.module.conomy.storage.TableBalance;
+import org.cubeengine.module.sql.database.Database;
+import org.cubeengine.reflect.Reflector;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.plugin.PluginContainer;
+
+import static org.cubeengine.module.conomy.storage.TableAccount.TABLE_ACCOUNT;
+import static org.cubeengine.module.conomy.storage.TableBalance.TABLE_BALANCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Transfers concurrently between a few accounts and checks that no money is created or lost.
+ */
+public class TransferStressTest
+{
+    private static final int THREADS = 64;
+    private static final int ACCOUNTS = 16;
+    private static final int TRANSFERS = 2_000;
+    private static final BigDecimal START = BigDecimal.valueOf(100);
+
+    private Path directory;
+    private DSLContext dsl;
+    private ConomyService service;
+    private ConfigCurrency currency;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        this.directory = Files.createTempDirectory("conomy-test");
+        this.dsl = DSL.using("jdbc:h2:mem:conomy" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+        Database db = mock(Database.class);
+        when(db.getDSL()).thenReturn(this.dsl);
+        new TableAccount().createTable(db);
+        new TableBalance().createTable(db);
+
+        Reflector reflector = new Reflector();
+        ConomyConfiguration config = reflector.create(ConomyConfiguration.class);
+        this.service = new ConomyService(mock(Conomy.class), config, this.directory, db, reflector,
+                                         mock(PermissionManager.class), mock(PluginContainer.class), LogManager.getLogger("conomy-test"));
+        this.currency = (ConfigCurrency) this.service.defaultCurrency();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        this.service.getBalanceWriter().shutdown();
+        this.dsl.close();
+        try (Stream<Path> files = Files.walk(this.directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void transfersConserveMoney() throws InterruptedException
+    {
+        List<BaseAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++)
+        {
+            UUID uuid = UUID.randomUUID();
+            this.dsl.newRecord(TABLE_ACCOUNT).newAccount(uuid, uuid.toString(), false, false).store();
+            BaseAccount account = (BaseAccount) this.service.findOrCreateAccount(uuid).get();
+            account.setBalance(currency, START, new HashSet<>());
+            accounts.add(account);
+        }
+        BigDecimal expected = START.multiply(BigDecimal.valueOf(ACCOUNTS));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++)
+        {
+            executor.execute(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS; i++)
+                {
+                    BaseAccount from = accounts.get(random.nextInt(ACCOUNTS));
+                    BaseAccount to = accounts.get(random.nextInt(ACCOUNTS));
+                    // may exceed the balance so withdrawals below the minimum are attempted as well
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 15_000), 2);
+                    from.transfer(to, currency, amount, new HashSet<>());
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Transfers did not finish - deadlocked?");
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (BaseAccount account : accounts)
+        {
+            BigDecimal balance = account.balance(currency, new HashSet<>());
+            assertTrue(balance.compareTo(currency.getMin(account)) >= 0, account.identifier() + " is below the minimum: " + balance);
+            total = total.add(balance);
+        }
+        assertEquals(0, expected.compareTo(total), "Money was created or lost: " + total);
+
+        this.service.getBalanceWriter().flush();
+        Long stored = this.dsl.select(DSL.sum(TABLE_BALANCE.BALANCE)).from(TABLE_BALANCE).fetchOne(0, Long.class);
+        assertEquals(currency.toLong(expected), (long) stored, "The stored balances differ");
+    }
+}
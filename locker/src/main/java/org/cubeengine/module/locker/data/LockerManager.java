@@ -533,8 +533,10 @@ public class LockerManager
             return false;
         }
         final UUID owner = dataHolder.get(LockerData.OWNER).get();
-        final String ownerName = uuidToName(owner, owner.toString());
-        if (perms.SHOW_OWNER.check(player))
+        // resolve once per interaction, the owner name is only looked up when shown
+        final boolean showOwner = perms.SHOW_OWNER.check(player);
+        final String ownerName = showOwner ? uuidToName(owner, owner.toString()) : null;
+        if (showOwner)
         {
             i18n.send(ChatType.ACTION_BAR, player, NEUTRAL, "This inventory is protected by {name}", ownerName);
         }
@@ -545,7 +547,7 @@ public class LockerManager
 
         if (blockInteract)
         {
-            if (perms.SHOW_OWNER.check(player))
+            if (showOwner)
             {
                 i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "Magic prevents you from accessing this inventory of {user}!", ownerName);
             }
@@ -686,8 +688,9 @@ public class LockerManager
             return false;
         }
         final UUID owner = dataHolder.get(LockerData.OWNER).get();
-        final String ownerName = uuidToName(owner, owner.toString());
-        if (perms.SHOW_OWNER.check(player))
+        final boolean showOwner = perms.SHOW_OWNER.check(player);
+        final String ownerName = showOwner ? uuidToName(owner, owner.toString()) : null;
+        if (showOwner)
         {
             i18n.send(ChatType.ACTION_BAR, player, NEUTRAL, "This entity is protected by {name}", ownerName);
         }
@@ -696,7 +699,7 @@ public class LockerManager
         final boolean blockInteract = ProtectionFlag.ENTITY_INTERACT.isBlocked(flags, accessFlags);
         if (blockInteract)
         {
-            if (perms.SHOW_OWNER.check(player))
+            if (showOwner)
             {
                 i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "Magic from {user} repelled your attempts to reach this entity!", ownerName);
             }
@@ -779,8 +782,9 @@ public class LockerManager
             return false;
         }
         final UUID owner = dataHolder.get(LockerData.OWNER).get();
-        final String ownerName = uuidToName(owner, owner.toString());
-        if (perms.SHOW_OWNER.check(player))
+        final boolean showOwner = perms.SHOW_OWNER.check(player);
+        final String ownerName = showOwner ? uuidToName(owner, owner.toString()) : null;
+        if (showOwner)
         {
             i18n.send(ChatType.ACTION_BAR, player, NEUTRAL, "This block is protected by {user}", ownerName);
         }
@@ -790,7 +794,7 @@ public class LockerManager
         final boolean blockInteract = ProtectionFlag.BLOCK_INTERACT.isBlocked(flags, accessFlags);
         if (blockInteract)
         {
-            if (perms.SHOW_OWNER.check(player))
+            if (showOwner)
             {
                 i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "Magic prevents you from interacting with this block of {user}!", ownerName);
             }
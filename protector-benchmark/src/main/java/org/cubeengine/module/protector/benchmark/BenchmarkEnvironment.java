@@ -0,0 +1,180 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.cubeengine.libcube.ModuleManager;
+import org.cubeengine.libcube.service.config.ConfigWorld;
+import org.cubeengine.libcube.service.filesystem.FileManager;
+import org.cubeengine.libcube.service.i18n.I18n;
+import org.cubeengine.libcube.service.permission.Permission;
+import org.cubeengine.libcube.service.permission.PermissionManager;
+import org.cubeengine.libcube.util.math.shape.Cuboid;
+import org.cubeengine.module.protector.PlayerRegionTracker;
+import org.cubeengine.module.protector.RegionManager;
+import org.cubeengine.module.protector.listener.MoveSettingsListener;
+import org.cubeengine.module.protector.listener.MoveSettingsListener.MoveType;
+import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.RegionConfig;
+import org.cubeengine.module.zoned.config.ZoneConfig;
+import org.cubeengine.reflect.Reflector;
+import org.spongepowered.api.ResourceKey;
+import org.spongepowered.api.entity.living.player.server.ServerPlayer;
+import org.spongepowered.api.util.Tristate;
+import org.spongepowered.api.world.server.ServerWorld;
+import org.spongepowered.math.vector.Vector3d;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The region lookups and move listeners of Protector running outside of a server in a single stub world.
+ * <p>Region configs are only created in memory and never written.
+ */
+final class BenchmarkEnvironment implements AutoCloseable
+{
+    private final Path directory;
+    private final Reflector reflector = new Reflector();
+    private final ResourceKey key;
+    private final ServerWorld world;
+    private final ConfigWorld configWorld;
+    private final RegionManager manager;
+    private final PlayerRegionTracker tracker;
+    private final MoveSettingsListener listener;
+
+    BenchmarkEnvironment() throws IOException
+    {
+        this.directory = Files.createTempDirectory("protector-benchmark");
+        this.key = Stubs.stub(ResourceKey.class, "namespace", "minecraft", "value", "world", "asString", "minecraft:world");
+        this.world = Stubs.stub(ServerWorld.class, "key", key);
+        this.configWorld = mock(ConfigWorld.class);
+        when(configWorld.getWorld()).thenReturn(world);
+        when(configWorld.getName()).thenReturn(key.asString());
+
+        FileManager fm = mock(FileManager.class);
+        when(fm.getModulePath(any())).thenReturn(this.directory);
+        Reflector configs = mock(Reflector.class);
+        when(configs.load(eq(RegionConfig.class), any(File.class))).thenAnswer(i -> reflector.create(RegionConfig.class));
+        this.manager = new RegionManager(mock(ModuleManager.class), configs, LogManager.getLogger("protector-benchmark"), fm);
+        this.worldRegions().put(key, new Region(null, regionConfig(null), manager));
+
+        this.tracker = new PlayerRegionTracker(manager);
+        this.listener = new MoveSettingsListener(manager, tracker, mock(PermissionManager.class, RETURNS_DEEP_STUBS), mock(I18n.class));
+        Permission denied = mock(Permission.class); // nobody may bypass
+        this.listener.movePerms.replaceAll((type, perm) -> denied);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<ResourceKey, Region> worldRegions()
+    {
+        try
+        {
+            Field field = RegionManager.class.getDeclaredField("worldRegions");
+            field.setAccessible(true);
+            return (Map<ResourceKey, Region>) field.get(manager);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RegionConfig regionConfig(String name)
+    {
+        RegionConfig config = reflector.create(RegionConfig.class);
+        config.name = name;
+        config.world = configWorld;
+        return config;
+    }
+
+    /**
+     * Adds a cuboid region without saving it
+     *
+     * @param name the name
+     * @param min the minimum corner
+     * @param size the size
+     * @param move the move settings
+     */
+    void region(String name, Vector3d min, Vector3d size, Map<MoveType, Tristate> move)
+    {
+        ZoneConfig zone = reflector.create(ZoneConfig.class);
+        zone.name = name;
+        zone.world = configWorld;
+        zone.shape = new Cuboid(min, size);
+        RegionConfig config = regionConfig(name);
+        config.settings.move.putAll(move);
+        try
+        {
+            Method load = RegionManager.class.getDeclaredMethod("loadRegion", Region.class);
+            load.setAccessible(true);
+            load.invoke(manager, new Region(zone, config, manager));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        manager.markDirty();
+    }
+
+    ServerPlayer player(UUID uuid)
+    {
+        return Stubs.stub(ServerPlayer.class, "uniqueId", uuid, "world", world);
+    }
+
+    ServerWorld getWorld()
+    {
+        return world;
+    }
+
+    RegionManager getManager()
+    {
+        return manager;
+    }
+
+    PlayerRegionTracker getTracker()
+    {
+        return tracker;
+    }
+
+    MoveSettingsListener getListener()
+    {
+        return listener;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try (Stream<Path> files = Files.walk(this.directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
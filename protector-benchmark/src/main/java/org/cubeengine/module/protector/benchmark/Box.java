@@ -0,0 +1,42 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+/**
+ * The x/z bounds of a region. The bounds are inclusive.
+ */
+final class Box
+{
+    final double minX;
+    final double minZ;
+    final double maxX;
+    final double maxZ;
+
+    Box(double minX, double minZ, double maxX, double maxZ)
+    {
+        this.minX = minX;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxZ = maxZ;
+    }
+
+    boolean contains(double x, double z)
+    {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+}
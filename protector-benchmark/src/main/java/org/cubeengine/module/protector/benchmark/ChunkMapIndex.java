@@ -0,0 +1,84 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.spongepowered.math.vector.Vector2i;
+import org.spongepowered.math.vector.Vector3d;
+import org.spongepowered.math.vector.Vector3i;
+
+/**
+ * The chunk map RegionManager used before the R-tree: every region is registered in every chunk its bounds touch.
+ */
+final class ChunkMapIndex
+{
+    private final Map<Vector2i, List<Box>> byChunk = new HashMap<>();
+
+    void insert(Box box)
+    {
+        Vector3d min = new Vector3d(box.minX, 0, box.minZ);
+        Vector3d max = new Vector3d(box.maxX, 0, box.maxZ);
+        for (Vector2i chunkLoc : getChunks(min.toInt(), max.toInt()))
+        {
+            byChunk.computeIfAbsent(chunkLoc, k -> new ArrayList<>()).add(box);
+        }
+    }
+
+    List<Box> getChunkRegions(int chunkX, int chunkZ)
+    {
+        return byChunk.getOrDefault(new Vector2i(chunkX, chunkZ), Collections.emptyList());
+    }
+
+    int size()
+    {
+        return byChunk.size();
+    }
+
+    private static List<Vector2i> getChunks(Vector3i from, Vector3i to)
+    {
+        List<Vector2i> result = new ArrayList<>();
+        int chunkXFrom = from.x() >> 4;
+        int chunkZFrom = from.z() >> 4;
+        int chunkXTo =  to.x() >> 4;
+        int chunkZTo = to.z() >> 4;
+        if (chunkXFrom > chunkXTo) // if from is greater swap
+        {
+            chunkXFrom = chunkXFrom + chunkXTo;
+            chunkXTo = chunkXFrom - chunkXTo;
+            chunkXFrom = chunkXFrom - chunkXTo;
+        }
+        if (chunkZFrom > chunkZTo) // if from is greater swap
+        {
+            chunkZFrom = chunkZFrom + chunkZTo;
+            chunkZTo = chunkZFrom - chunkZTo;
+            chunkZFrom = chunkZFrom - chunkZTo;
+        }
+        for (int x = chunkXFrom; x <= chunkXTo; x++)
+        {
+            for (int z = chunkZFrom; z <= chunkZTo; z++)
+            {
+                result.add(new Vector2i(x, z));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import org.cubeengine.module.protector.listener.MoveSettingsListener.MoveType;
+import org.spongepowered.api.util.Tristate;
+import org.spongepowered.math.vector.Vector3d;
+
+/**
+ * A grid of 8 x 8 regions 24 blocks wide covering the area players move in
+ */
+public enum MoveLayout
+{
+    /**
+     * No region defines a move setting
+     */
+    NONE,
+    /**
+     * The regions in turn deny entering, exiting and moving
+     */
+    RESTRICTED;
+
+    private static final MoveType[] DENIED = {MoveType.ENTER, MoveType.EXIT, MoveType.MOVE};
+
+    void apply(BenchmarkEnvironment env)
+    {
+        double spacing = MovementTrace.RANGE * 2 / 8;
+        for (int i = 0; i < 64; i++)
+        {
+            Map<MoveType, Tristate> move = Collections.emptyMap();
+            if (this == RESTRICTED)
+            {
+                move = new EnumMap<>(MoveType.class);
+                move.put(DENIED[i % DENIED.length], Tristate.FALSE);
+            }
+            Vector3d min = new Vector3d(-MovementTrace.RANGE + (i % 8) * spacing, 0, -MovementTrace.RANGE + (i / 8) * spacing);
+            env.region("region" + i, min, new Vector3d(24, 256, 24), move);
+        }
+    }
+}
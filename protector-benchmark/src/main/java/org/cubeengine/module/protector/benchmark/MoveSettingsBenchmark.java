@@ -0,0 +1,138 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.module.protector.PlayerRegionTracker;
+import org.cubeengine.module.protector.listener.MoveSettingsListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.entity.living.player.server.ServerPlayer;
+
+/**
+ * Replays the movement of 200 players through the move listeners. One operation is one server tick.
+ * <p>The trace is generated unless a recorded one is given with -Dprotector.trace=file (see {@link MovementTrace#load}).
+ * The allocations per tick are shown by the gc profiler of JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveSettingsBenchmark
+{
+    private static final int PLAYERS = 200;
+    private static final int TICKS = 1200;
+
+    @Param
+    private MoveLayout layout;
+
+    private BenchmarkEnvironment env;
+    private MovementTrace trace;
+    private ServerPlayer[] players;
+    private MoveSettingsListener listener;
+    private PlayerRegionTracker tracker;
+    private final TraceEvent event = new TraceEvent();
+    private int tick;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        String file = System.getProperty("protector.trace");
+        this.trace = file == null || file.isEmpty() ? MovementTrace.generate(PLAYERS, TICKS, 42) : MovementTrace.load(Paths.get(file));
+        this.env = new BenchmarkEnvironment();
+        this.layout.apply(env);
+        this.listener = env.getListener();
+        this.tracker = env.getTracker();
+        this.players = new ServerPlayer[trace.getPlayers()];
+        for (int i = 0; i < players.length; i++)
+        {
+            players[i] = env.player(new UUID(0, i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        env.close();
+    }
+
+    private int nextTick()
+    {
+        tick = (tick + 1) % (trace.getTicks() - 1);
+        return tick;
+    }
+
+    /**
+     * Only the listener checking move settings
+     */
+    @Benchmark
+    public int onMove()
+    {
+        int tick = nextTick();
+        int cancelled = 0;
+        for (int i = 0; i < players.length; i++)
+        {
+            event.reset(players[i], trace.get(tick, i), trace.get(tick + 1, i));
+            listener.onMove(event, players[i]);
+            if (event.isCancelled())
+            {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * The listener checking move settings followed by the tracker remembering the regions of every player
+     */
+    @Benchmark
+    public int onMoveTracked()
+    {
+        int tick = nextTick();
+        int cancelled = 0;
+        for (int i = 0; i < players.length; i++)
+        {
+            event.reset(players[i], trace.get(tick, i), trace.get(tick + 1, i));
+            listener.onMove(event, players[i]);
+            if (event.isCancelled())
+            {
+                cancelled++;
+            }
+            else
+            {
+                tracker.onMoved(event, players[i]);
+            }
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.spongepowered.math.vector.Vector3d;
+
+/**
+ * The positions of players on every tick
+ */
+final class MovementTrace
+{
+    static final double RANGE = 256;
+
+    private final Vector3d[][] positions; // [tick][player]
+
+    private MovementTrace(Vector3d[][] positions)
+    {
+        this.positions = positions;
+    }
+
+    int getTicks()
+    {
+        return positions.length;
+    }
+
+    int getPlayers()
+    {
+        return positions[0].length;
+    }
+
+    Vector3d get(int tick, int player)
+    {
+        return positions[tick][player];
+    }
+
+    /**
+     * Generates players walking, sprinting and standing around within {@link #RANGE} blocks of the origin
+     */
+    static MovementTrace generate(int players, int ticks, long seed)
+    {
+        Random random = new Random(seed);
+        Vector3d[][] positions = new Vector3d[ticks][players];
+        for (int player = 0; player < players; player++)
+        {
+            double x = (random.nextDouble() * 2 - 1) * RANGE;
+            double z = (random.nextDouble() * 2 - 1) * RANGE;
+            double angle = random.nextDouble() * Math.PI * 2;
+            double speed = 0;
+            for (int tick = 0; tick < ticks; tick++)
+            {
+                if (random.nextInt(20) == 0)
+                {
+                    angle += random.nextGaussian();
+                    speed = random.nextInt(5) == 0 ? 0 : random.nextBoolean() ? 0.216 : 0.281; // standing, walking or sprinting
+                }
+                x += Math.cos(angle) * speed;
+                z += Math.sin(angle) * speed;
+                if (Math.abs(x) > RANGE || Math.abs(z) > RANGE)
+                {
+                    angle += Math.PI; // turn around at the border
+                    x = Math.max(-RANGE, Math.min(RANGE, x));
+                    z = Math.max(-RANGE, Math.min(RANGE, z));
+                }
+                positions[tick][player] = new Vector3d(x, 64, z);
+            }
+        }
+        return new MovementTrace(positions);
+    }
+
+    /**
+     * Loads a recorded trace. Every line is "tick,player,x,y,z" with ticks and players counted from 0.
+     * <p>Players keep their last position on ticks without a line.
+     */
+    static MovementTrace load(Path file) throws IOException
+    {
+        List<String> lines = Files.readAllLines(file);
+        int ticks = 0;
+        int players = 0;
+        for (String line : lines)
+        {
+            String[] values = line.split(",");
+            ticks = Math.max(ticks, Integer.parseInt(values[0].trim()) + 1);
+            players = Math.max(players, Integer.parseInt(values[1].trim()) + 1);
+        }
+        Vector3d[][] positions = new Vector3d[ticks][players];
+        for (String line : lines)
+        {
+            String[] values = line.split(",");
+            positions[Integer.parseInt(values[0].trim())][Integer.parseInt(values[1].trim())] =
+                new Vector3d(Double.parseDouble(values[2]), Double.parseDouble(values[3]), Double.parseDouble(values[4]));
+        }
+        for (int player = 0; player < players; player++)
+        {
+            Vector3d last = Vector3d.ZERO;
+            for (int tick = 0; tick < ticks; tick++)
+            {
+                if (positions[tick][player] == null)
+                {
+                    positions[tick][player] = last;
+                }
+                last = positions[tick][player];
+            }
+        }
+        return new MovementTrace(positions);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.module.zoned.RTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The R-tree of RegionManager compared to the chunk map it replaced.
+ * <p>Point lookups resolve the regions at a block like RegionManager#getRegions,
+ * section lookups find the candidates of a chunk section like RegionManager#getSectionRegions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g") // the chunk map of LARGE has over a million entries
+public class RegionIndexBenchmark
+{
+    private static final int QUERIES = 4096;
+
+    @Param
+    private RegionLayout layout;
+
+    private List<Box> regions;
+    private RTree<Box> tree;
+    private ChunkMapIndex chunkMap;
+    private int[] xs;
+    private int[] zs;
+    private int query;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        this.regions = layout.regions(random);
+        this.tree = buildTree();
+        this.chunkMap = buildChunkMap();
+        this.xs = new int[QUERIES];
+        this.zs = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+        {
+            xs[i] = random.nextInt(RegionLayout.WORLD_SIZE) - RegionLayout.WORLD_SIZE / 2;
+            zs[i] = random.nextInt(RegionLayout.WORLD_SIZE) - RegionLayout.WORLD_SIZE / 2;
+        }
+    }
+
+    private RTree<Box> buildTree()
+    {
+        RTree<Box> tree = new RTree<>();
+        for (Box box : regions)
+        {
+            tree.insert(box.minX, box.minZ, box.maxX, box.maxZ, box);
+        }
+        return tree;
+    }
+
+    private ChunkMapIndex buildChunkMap()
+    {
+        ChunkMapIndex index = new ChunkMapIndex();
+        for (Box box : regions)
+        {
+            index.insert(box);
+        }
+        return index;
+    }
+
+    private int next()
+    {
+        return query = (query + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RTree<Box> treeBuild()
+    {
+        return buildTree();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ChunkMapIndex chunkMapBuild()
+    {
+        return buildChunkMap();
+    }
+
+    @Benchmark
+    public int treePoint()
+    {
+        int i = next();
+        int x = xs[i];
+        int z = zs[i];
+        int[] count = new int[1];
+        tree.query(x, z, x, z, box -> {
+            if (box.contains(x, z))
+            {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public int chunkMapPoint()
+    {
+        int i = next();
+        int x = xs[i];
+        int z = zs[i];
+        int count = 0;
+        for (Box box : chunkMap.getChunkRegions(x >> 4, z >> 4))
+        {
+            if (box.contains(x, z))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void treeSection(Blackhole blackhole)
+    {
+        int i = next();
+        int x = xs[i] & ~15;
+        int z = zs[i] & ~15;
+        tree.query(x, z, x + 15, z + 15, blackhole::consume);
+    }
+
+    @Benchmark
+    public void chunkMapSection(Blackhole blackhole)
+    {
+        int i = next();
+        for (Box box : chunkMap.getChunkRegions(xs[i] >> 4, zs[i] >> 4))
+        {
+            blackhole.consume(box);
+        }
+    }
+}
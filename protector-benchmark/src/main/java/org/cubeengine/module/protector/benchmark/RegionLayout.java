@@ -0,0 +1,69 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic region layouts within {@link #WORLD_SIZE} blocks around the origin
+ */
+public enum RegionLayout
+{
+    /**
+     * A few overlapping regions spanning 10k x 10k blocks each
+     */
+    LARGE
+    {
+        @Override
+        List<Box> regions(Random random)
+        {
+            List<Box> regions = new ArrayList<>();
+            for (int i = 0; i < 4; i++)
+            {
+                double x = random.nextInt(WORLD_SIZE - 10_000) - WORLD_SIZE / 2;
+                double z = random.nextInt(WORLD_SIZE - 10_000) - WORLD_SIZE / 2;
+                regions.add(new Box(x, z, x + 10_000, z + 10_000));
+            }
+            return regions;
+        }
+    },
+    /**
+     * Many regions between 8 and 64 blocks wide
+     */
+    MANY_SMALL
+    {
+        @Override
+        List<Box> regions(Random random)
+        {
+            List<Box> regions = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++)
+            {
+                double x = random.nextInt(WORLD_SIZE - 64) - WORLD_SIZE / 2;
+                double z = random.nextInt(WORLD_SIZE - 64) - WORLD_SIZE / 2;
+                regions.add(new Box(x, z, x + 8 + random.nextInt(57), z + 8 + random.nextInt(57)));
+            }
+            return regions;
+        }
+    };
+
+    public static final int WORLD_SIZE = 20_000;
+
+    abstract List<Box> regions(Random random);
+}
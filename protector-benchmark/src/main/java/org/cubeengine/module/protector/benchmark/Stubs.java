@@ -0,0 +1,70 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal stubs of Sponge interfaces.
+ * <p>Unlike mocks these do not record invocations, so calls without arguments do not allocate.
+ */
+final class Stubs
+{
+    private Stubs()
+    {
+    }
+
+    /**
+     * Creates a stub answering calls by method name
+     *
+     * @param type the interface
+     * @param answers pairs of method name and return value
+     *
+     * @return the stub
+     */
+    static <T> T stub(Class<T> type, Object... answers)
+    {
+        Map<String, Object> byName = new HashMap<>();
+        for (int i = 0; i < answers.length; i += 2)
+        {
+            byName.put((String) answers[i], answers[i + 1]);
+        }
+        Object[] hash = new Object[1]; // boxed once so hashing does not allocate
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+                case "hashCode":
+                    return hash[0];
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + byName;
+                default:
+                    if (!byName.containsKey(method.getName()))
+                    {
+                        throw new UnsupportedOperationException(method.toString());
+                    }
+                    return byName.get(method.getName());
+            }
+        });
+        hash[0] = System.identityHashCode(stub);
+        return type.cast(stub);
+    }
+}
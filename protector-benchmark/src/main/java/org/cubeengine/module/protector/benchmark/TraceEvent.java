@@ -0,0 +1,84 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.benchmark;
+
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.event.Cause;
+import org.spongepowered.api.event.entity.MoveEntityEvent;
+import org.spongepowered.math.vector.Vector3d;
+
+/**
+ * A reusable move event replaying one step of a {@link MovementTrace}
+ */
+final class TraceEvent implements MoveEntityEvent
+{
+    private Entity entity;
+    private Vector3d origin;
+    private Vector3d destination;
+    private boolean cancelled;
+
+    void reset(Entity entity, Vector3d origin, Vector3d destination)
+    {
+        this.entity = entity;
+        this.origin = origin;
+        this.destination = destination;
+        this.cancelled = false;
+    }
+
+    @Override
+    public Entity entity()
+    {
+        return entity;
+    }
+
+    @Override
+    public Vector3d originalPosition()
+    {
+        return origin;
+    }
+
+    @Override
+    public Vector3d destinationPosition()
+    {
+        return destination;
+    }
+
+    @Override
+    public void setDestinationPosition(Vector3d position)
+    {
+        this.destination = position;
+    }
+
+    @Override
+    public Cause cause()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancel)
+    {
+        this.cancelled = cancel;
+    }
+}
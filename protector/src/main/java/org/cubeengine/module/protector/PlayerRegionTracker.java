@@ -0,0 +1,196 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.RegionSet;
+import org.spongepowered.api.ResourceKey;
+import org.spongepowered.api.entity.living.player.server.ServerPlayer;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.entity.ChangeEntityWorldEvent;
+import org.spongepowered.api.event.entity.MoveEntityEvent;
+import org.spongepowered.api.event.filter.Getter;
+import org.spongepowered.api.event.network.ServerSideConnectionEvent;
+import org.spongepowered.api.world.server.ServerWorld;
+import org.spongepowered.math.GenericMath;
+import org.spongepowered.math.vector.Vector3d;
+import org.spongepowered.math.vector.Vector3i;
+
+/**
+ * Remembers the regions each online player is in.
+ * <p>Region sets are interned so a changed set is detected by identity and only then enter/exit deltas are computed.
+ * The deltas are shared with the move listeners through {@link RegionSet#transitionTo}.
+ * <p>Snapshots taken before the regions changed are recomputed when used.
+ */
+@Singleton
+public class PlayerRegionTracker
+{
+    private final RegionManager manager;
+    private final Map<UUID, Snapshot> players = new ConcurrentHashMap<>();
+
+    @Inject
+    public PlayerRegionTracker(RegionManager manager)
+    {
+        this.manager = manager;
+    }
+
+    /**
+     * Returns the regions of a player at given position using the tracked regions if the block position did not change
+     *
+     * @param player the player
+     * @param world the world
+     * @param pos the position
+     *
+     * @return the regions
+     */
+    public RegionSet getRegions(ServerPlayer player, ServerWorld world, Vector3d pos)
+    {
+        Snapshot snapshot = this.players.get(player.uniqueId());
+        int x = GenericMath.floor(pos.x());
+        int y = GenericMath.floor(pos.y());
+        int z = GenericMath.floor(pos.z());
+        if (snapshot != null && snapshot.isAt(world.key(), x, y, z) && snapshot.generation == this.manager.getGeneration())
+        {
+            return snapshot.regions;
+        }
+        return this.manager.getRegionsAt(world, new Vector3i(x, y, z));
+    }
+
+    /**
+     * Returns the current snapshot of a player updating it if the player moved since
+     *
+     * @param player the player
+     *
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot(ServerPlayer player)
+    {
+        return this.update(player, player.world(), player.position());
+    }
+
+    /**
+     * Tracks the player at given position
+     *
+     * @param player the player
+     * @param world the world
+     * @param pos the position
+     *
+     * @return the snapshot
+     */
+    public Snapshot update(ServerPlayer player, ServerWorld world, Vector3d pos)
+    {
+        Snapshot snapshot = this.players.get(player.uniqueId());
+        int x = GenericMath.floor(pos.x());
+        int y = GenericMath.floor(pos.y());
+        int z = GenericMath.floor(pos.z());
+        int generation = this.manager.getGeneration();
+        if (snapshot != null && snapshot.isAt(world.key(), x, y, z) && snapshot.generation == generation)
+        {
+            return snapshot;
+        }
+        RegionSet regions = this.manager.getRegionsAt(world, new Vector3i(x, y, z));
+        if (snapshot != null && snapshot.regions == regions)
+        {
+            snapshot = new Snapshot(generation, world.key(), x, y, z, regions, snapshot.previous);
+        }
+        else
+        {
+            snapshot = new Snapshot(generation, world.key(), x, y, z, regions, snapshot == null ? null : snapshot.regions);
+        }
+        this.players.put(player.uniqueId(), snapshot);
+        return snapshot;
+    }
+
+    @Listener(order = Order.POST)
+    public void onMoved(MoveEntityEvent event, @Getter("entity") ServerPlayer player)
+    {
+        ServerWorld world = event instanceof ChangeEntityWorldEvent.Reposition ? ((ChangeEntityWorldEvent.Reposition)event).destinationWorld() : player.world();
+        this.update(player, world, event.destinationPosition());
+    }
+
+    @Listener
+    public void onJoin(ServerSideConnectionEvent.Join event)
+    {
+        this.getSnapshot(event.player());
+    }
+
+    @Listener
+    public void onQuit(ServerSideConnectionEvent.Disconnect event)
+    {
+        this.players.remove(event.player().uniqueId());
+    }
+
+    /**
+     * The regions of a player at a block position and the regions entered or left to get there
+     */
+    public static final class Snapshot
+    {
+        private final int generation;
+        private final ResourceKey world;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final RegionSet regions;
+        private final RegionSet previous;
+
+        private Snapshot(int generation, ResourceKey world, int x, int y, int z, RegionSet regions, RegionSet previous)
+        {
+            this.generation = generation;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.regions = regions;
+            this.previous = previous;
+        }
+
+        public boolean isAt(ResourceKey world, int x, int y, int z)
+        {
+            return this.x == x && this.y == y && this.z == z && this.world.equals(world);
+        }
+
+        public RegionSet getRegions()
+        {
+            return regions;
+        }
+
+        /**
+         * Returns the regions entered on the last region change
+         */
+        public List<Region> getEntered()
+        {
+            return this.previous == null ? this.regions : this.previous.transitionTo(this.regions).getEntered();
+        }
+
+        /**
+         * Returns the regions left on the last region change
+         */
+        public List<Region> getLeft()
+        {
+            return this.previous == null ? Collections.<Region>emptyList() : this.previous.transitionTo(this.regions).getLeft();
+        }
+    }
+}
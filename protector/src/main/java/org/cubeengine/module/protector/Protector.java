@@ -59,22 +59,23 @@ public class Protector
     @ModuleListener private MoveSettingsListener moveSettingsListener;
     @ModuleListener private SettingsListener settingsListener;
     @ModuleListener private SpawnSettingsListener spawnSettingsListener;
+    @ModuleListener private PlayerRegionTracker playerRegionTracker;
 
     @Inject private RegionManager manager;
+    @Inject private RegionContextCalculator contextCalculator;
 
     @Listener
     public void onEnable(StartedEngineEvent<Server> event)
     {
-        ps.registerContextCalculator(new RegionContextCalculator(manager));
+        ps.registerContextCalculator(contextCalculator);
         i18n.getCompositor().registerFormatter(new RegionFormatter());
 
         manager.reload();
-        logger.info("{} Regions loaded", manager.getRegionCount());
     }
 
     @Listener
     public void onChangeZone(ZoneEvent event)
     {
-        manager.reload();
+        manager.updateZone(event.getChangedZone());
     }
 }
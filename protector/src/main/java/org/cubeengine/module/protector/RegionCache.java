@@ -0,0 +1,188 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.cubeengine.module.protector.region.RegionSet;
+import org.spongepowered.api.ResourceKey;
+import org.spongepowered.math.vector.Vector3i;
+
+/**
+ * A bounded per world cache of the regions at chunk sections and block positions.
+ * <p>Sections that are not crossed by any region boundary resolve to the same regions for every block in them.
+ * Only the blocks of sections that are {@link #MIXED} are cached individually.
+ * <p>The least recently used entries are evicted once a world holds more than {@link #maxSize} entries.
+ */
+public class RegionCache
+{
+    /**
+     * Marks a section in which the regions differ between positions
+     */
+    public static final RegionSet MIXED = new RegionSet(Collections.emptyList());
+
+    private final int maxSize;
+    private final Map<ResourceKey, Map<Vector3i, RegionSet>> positions = new HashMap<>();
+    private final Map<ResourceKey, Map<Vector3i, RegionSet>> sections = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long sectionHits;
+
+    public RegionCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    public synchronized RegionSet get(ResourceKey world, Vector3i pos, Function<Vector3i, RegionSet> loader)
+    {
+        Map<Vector3i, RegionSet> cache = this.positions.computeIfAbsent(world, k -> this.newLruMap());
+        RegionSet regions = cache.get(pos);
+        if (regions != null)
+        {
+            hits++;
+            return regions;
+        }
+        misses++;
+        regions = loader.apply(pos);
+        cache.put(pos, regions);
+        return regions;
+    }
+
+    /**
+     * Returns the cached regions of a 16x16x16 chunk section
+     *
+     * @param world the world
+     * @param section the section position (block position &gt;&gt; 4)
+     * @param loader computes the regions of the section or {@link #MIXED} if the regions differ within the section
+     *
+     * @return the regions of the section or {@link #MIXED}
+     */
+    public synchronized RegionSet getSection(ResourceKey world, Vector3i section, Function<Vector3i, RegionSet> loader)
+    {
+        Map<Vector3i, RegionSet> cache = this.sections.computeIfAbsent(world, k -> this.newLruMap());
+        RegionSet regions = cache.get(section);
+        if (regions != null)
+        {
+            if (regions != MIXED)
+            {
+                sectionHits++;
+            }
+            return regions;
+        }
+        regions = loader.apply(section);
+        cache.put(section, regions);
+        return regions;
+    }
+
+    private Map<Vector3i, RegionSet> newLruMap()
+    {
+        return new LinkedHashMap<Vector3i, RegionSet>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Vector3i, RegionSet> eldest)
+            {
+                if (size() > maxSize)
+                {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Invalidates all cached positions in the given chunk range of a world
+     *
+     * @param world the world
+     * @param chunkXFrom the lowest chunk x
+     * @param chunkZFrom the lowest chunk z
+     * @param chunkXTo the highest chunk x
+     * @param chunkZTo the highest chunk z
+     */
+    public synchronized void invalidateChunks(ResourceKey world, int chunkXFrom, int chunkZFrom, int chunkXTo, int chunkZTo)
+    {
+        Map<Vector3i, RegionSet> cache = this.positions.get(world);
+        if (cache != null)
+        {
+            cache.keySet().removeIf(pos -> {
+                int chunkX = pos.x() >> 4;
+                int chunkZ = pos.z() >> 4;
+                return chunkX >= chunkXFrom && chunkX <= chunkXTo && chunkZ >= chunkZFrom && chunkZ <= chunkZTo;
+            });
+        }
+        cache = this.sections.get(world);
+        if (cache != null)
+        {
+            cache.keySet().removeIf(section -> section.x() >= chunkXFrom && section.x() <= chunkXTo
+                                            && section.z() >= chunkZFrom && section.z() <= chunkZTo);
+        }
+    }
+
+    public synchronized void invalidate(ResourceKey world)
+    {
+        this.positions.remove(world);
+        this.sections.remove(world);
+    }
+
+    public synchronized void clear()
+    {
+        this.positions.clear();
+        this.sections.clear();
+    }
+
+    public synchronized int size()
+    {
+        return this.positions.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public synchronized int sectionCount()
+    {
+        return this.sections.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    public synchronized long getSectionHits()
+    {
+        return sectionHits;
+    }
+
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+}
@@ -21,7 +21,7 @@ import java.util.List;
 import java.util.function.Consumer;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import org.cubeengine.module.protector.region.Region;
+import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import org.spongepowered.api.event.Cause;
 import org.spongepowered.api.service.context.Context;
 import org.spongepowered.api.service.context.ContextCalculator;
@@ -31,19 +31,33 @@ import org.spongepowered.api.world.Locatable;
 public class RegionContextCalculator implements ContextCalculator
 {
     private RegionManager manager;
+    private PlayerRegionTracker tracker;
 
     @Inject
-    public RegionContextCalculator(RegionManager manager)
+    public RegionContextCalculator(RegionManager manager, PlayerRegionTracker tracker)
     {
         this.manager = manager;
+        this.tracker = tracker;
     }
 
     @Override
     public void accumulateContexts(Cause source, Consumer<Context> accumulator)
     {
         source.first(Locatable.class).ifPresent(locatable -> {
-            List<Region> regions = manager.getRegionsAt(locatable.serverLocation());
-            regions.stream().map(Region::getContext).forEach(accumulator::accept);
+            List<Context> contexts;
+            if (locatable instanceof ServerPlayer)
+            {
+                // Only looked up again when the player moved to another block
+                contexts = tracker.getSnapshot((ServerPlayer) locatable).getRegions().getContexts();
+            }
+            else
+            {
+                contexts = manager.getRegionsAt(locatable.serverLocation()).getContexts();
+            }
+            for (Context context : contexts)
+            {
+                accumulator.accept(context);
+            }
         });
     }
 
@@ -17,18 +17,27 @@
  */
 package org.cubeengine.module.protector;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.apache.logging.log4j.Logger;
@@ -36,9 +45,13 @@ import org.cubeengine.libcube.ModuleManager;
 import org.cubeengine.libcube.service.config.ConfigWorld;
 import org.cubeengine.libcube.service.filesystem.FileExtensionFilter;
 import org.cubeengine.libcube.service.filesystem.FileManager;
+import org.cubeengine.libcube.service.task.thread.BaseThreadFactory;
 import org.cubeengine.libcube.util.math.shape.Cuboid;
+import org.cubeengine.module.protector.listener.MoveSettingsListener.MoveType;
 import org.cubeengine.module.protector.region.Region;
 import org.cubeengine.module.protector.region.RegionConfig;
+import org.cubeengine.module.protector.region.RegionSet;
+import org.cubeengine.module.zoned.RTree;
 import org.cubeengine.module.zoned.Zoned;
 import org.cubeengine.module.zoned.config.ZoneConfig;
 import org.cubeengine.reflect.Reflector;
@@ -48,10 +61,11 @@ import org.spongepowered.api.command.CommandCause;
 import org.spongepowered.api.util.Identifiable;
 import org.spongepowered.api.world.server.ServerLocation;
 import org.spongepowered.api.world.server.ServerWorld;
-import org.spongepowered.math.vector.Vector2i;
 import org.spongepowered.math.vector.Vector3d;
 import org.spongepowered.math.vector.Vector3i;
 
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
 @Singleton
 public class RegionManager
 {
@@ -60,11 +74,12 @@ public class RegionManager
     private final Reflector reflector;
     private Logger logger;
     private Zoned zoned;
-    private Map<ResourceKey, Map<String, Region>> byName = new HashMap<>();
-    private Map<ResourceKey, Map<Vector2i, List<Region>>> byChunk = new HashMap<>();
+    private static final int LOADER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private final ThreadPoolExecutor loader;
+    private volatile State state;
 
     private Map<ResourceKey, Region> worldRegions = new HashMap<>();
-    private Region globalRegion;
 
     private Map<UUID, Region> activeRegion = new HashMap<>(); // playerUUID -> Region
 
@@ -85,7 +100,9 @@ public class RegionManager
             throw new IllegalStateException(e);
         }
         RegionConfig config = reflector.load(RegionConfig.class, path.resolve("global.yml").toFile());
-        this.globalRegion = new Region(null, config, this);
+        this.state = new State(new Region(null, config, this), Collections.emptyMap(), Collections.emptyMap());
+        this.loader = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new LoaderThreadFactory());
+        this.loader.allowCoreThreadTimeOut(true); // threads are only needed while reloading
     }
 
     private Region loadRegion(Region region)
@@ -95,73 +112,231 @@ public class RegionManager
             logger.warn("Region {} was not loaded: Could not find world {}.", region.getName(), region.getWorldName());
             return region;
         }
-        byName.computeIfAbsent(world.key(), k -> new HashMap<>()).put(region.getName().toLowerCase(), region);
+        this.updateWorld(world.key(), regions -> regions.put(region.getName().toLowerCase(), region));
+        return region;
+    }
+
+    /**
+     * Changes the regions of a world.
+     * <p>The index is not thread-safe and may be queried concurrently so the regions and index of the world are copied,
+     * changed and published as a whole.
+     *
+     * @param world the world
+     * @param change the change to the regions by name
+     */
+    private synchronized void updateWorld(ResourceKey world, Consumer<Map<String, Region>> change)
+    {
+        State state = this.state;
+        Map<String, Region> regions = new HashMap<>(state.byName.getOrDefault(world, Collections.emptyMap()));
+        change.accept(regions);
+        Map<ResourceKey, Map<String, Region>> byName = new HashMap<>(state.byName);
+        Map<ResourceKey, RTree<Region>> index = new HashMap<>(state.index);
+        byName.put(world, regions);
+        index.put(world, buildIndex(regions.values()));
+        this.state = new State(state.global, byName, index);
+    }
 
-        Vector3d max = region.getCuboid().getMaximumPoint();
-        Vector3d min = region.getCuboid().getMinimumPoint();
-        Map<Vector2i, List<Region>> chunkMap = byChunk.computeIfAbsent(region.getWorld().key(), k -> new HashMap<>());
-        for (Vector2i chunkLoc : getChunks(min.toInt(), max.toInt()))
+    /**
+     * The loaded regions. Always replaced as a whole so lookups see the regions and their index of the same load.
+     */
+    private static final class State
+    {
+        private final Region global;
+        private final Map<ResourceKey, Map<String, Region>> byName;
+        private final Map<ResourceKey, RTree<Region>> index;
+
+        private State(Region global, Map<ResourceKey, Map<String, Region>> byName, Map<ResourceKey, RTree<Region>> index)
         {
-            chunkMap.computeIfAbsent(chunkLoc, k -> new ArrayList<>()).add(region);
+            this.global = global;
+            this.byName = byName;
+            this.index = index;
         }
-        return region;
     }
 
-    public List<Vector2i> getChunks(Vector3i from, Vector3i to)
+    private static final int CACHE_SIZE_PER_WORLD = 1 << 15;
+    private final RegionCache regionCache = new RegionCache(CACHE_SIZE_PER_WORLD);
+    private final Map<RegionSet, RegionSet> internedSets = new HashMap<>();
+    private final Map<ResourceKey, Integer> worldMoveMasks = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public RegionSet getRegionsAt(ServerLocation loc)
     {
-        List<Vector2i> result = new ArrayList<>();
-        int chunkXFrom = from.x() >> 4;
-        int chunkZFrom = from.z() >> 4;
-        int chunkXTo =  to.x() >> 4;
-        int chunkZTo = to.z() >> 4;
-        if (chunkXFrom > chunkXTo) // if from is greater swap
+        return this.getRegionsAt(loc.world(), loc.blockPosition());
+    }
+
+    public RegionSet getRegionsAt(ServerWorld world, Vector3i pos) {
+        Vector3i section = new Vector3i(pos.x() >> 4, pos.y() >> 4, pos.z() >> 4);
+        RegionSet regions = regionCache.getSection(world.key(), section, s -> getSectionRegions(world, s));
+        if (regions != RegionCache.MIXED)
         {
-            chunkXFrom = chunkXFrom + chunkXTo;
-            chunkXTo = chunkXFrom - chunkXTo;
-            chunkXFrom = chunkXFrom - chunkXTo;
+            return regions;
         }
-        if (chunkZFrom > chunkZTo) // if from is greater swap
+        return regionCache.get(world.key(), pos, p -> getRegions(world, p));
+    }
+
+    /**
+     * Resolves the regions at many locations at once e.g. for all blocks affected by an explosion.
+     * <p>Locations are grouped by chunk section so every section is only resolved once.
+     *
+     * @param locations the locations
+     *
+     * @return the distinct region sets at the locations
+     */
+    public Collection<RegionSet> getRegionSetsAt(Collection<ServerLocation> locations)
+    {
+        Set<RegionSet> result = new LinkedHashSet<>();
+        Map<ResourceKey, Map<Vector3i, RegionSet>> sections = new HashMap<>();
+        for (ServerLocation loc : locations)
         {
-            chunkZFrom = chunkZFrom + chunkZTo;
-            chunkZTo = chunkZFrom - chunkZTo;
-            chunkZFrom = chunkZFrom - chunkZTo;
+            ServerWorld world = loc.world();
+            Vector3i pos = loc.blockPosition();
+            Vector3i section = new Vector3i(pos.x() >> 4, pos.y() >> 4, pos.z() >> 4);
+            RegionSet regions = sections.computeIfAbsent(world.key(), k -> new HashMap<>())
+                                        .computeIfAbsent(section, sec -> regionCache.getSection(world.key(), sec, s -> getSectionRegions(world, s)));
+            if (regions == RegionCache.MIXED)
+            {
+                regions = regionCache.get(world.key(), pos, p -> getRegions(world, p));
+            }
+            result.add(regions);
         }
-        for (int x = chunkXFrom; x <= chunkXTo; x++)
+        return result;
+    }
+
+    /**
+     * Returns whether any region in given world, including the world and global region, defines a setting for given MoveType
+     */
+    public boolean hasMoveSetting(ServerWorld world, MoveType type)
+    {
+        return (this.getMoveMask(world) & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Returns whether any region in given world, including the world and global region, defines a move setting
+     */
+    public boolean hasMoveSettings(ServerWorld world)
+    {
+        return this.getMoveMask(world) != 0;
+    }
+
+    private int getMoveMask(ServerWorld world)
+    {
+        Integer mask = this.worldMoveMasks.get(world.key());
+        if (mask == null)
         {
-            for (int z = chunkZFrom; z <= chunkZTo; z++)
+            State state = this.state;
+            int value = RegionSet.moveMask(state.global) | RegionSet.moveMask(this.getWorldRegion(world.key()));
+            for (Region region : state.byName.getOrDefault(world.key(), Collections.emptyMap()).values())
             {
-                result.add(new Vector2i(x, z));
+                value |= RegionSet.moveMask(region);
             }
+            mask = value;
+            this.worldMoveMasks.put(world.key(), mask);
         }
-        return result;
+        return mask;
     }
 
-    private Map<ResourceKey, Map<Vector3i, List<Region>>> regionCache = new HashMap<>();
+    /**
+     * Returns a counter that changes whenever any region changed.
+     * Used to detect outdated region sets held outside of this manager.
+     */
+    public int getGeneration()
+    {
+        return generation.get();
+    }
 
-    public List<Region> getRegionsAt(ServerLocation loc)
+    public RegionCache getRegionCache()
     {
-        Map<Vector3i, List<Region>> cache = regionCache.computeIfAbsent(loc.world().key(), k -> new HashMap<>());
-        return cache.computeIfAbsent(loc.blockPosition(), v -> getRegions(loc.world(), loc.blockPosition()));
+        return regionCache;
     }
 
-    public List<Region> getRegionsAt(ServerWorld world, Vector3i pos) {
-        Map<Vector3i, List<Region>> cache = regionCache.computeIfAbsent(world.key(), k -> new HashMap<>());
-        return cache.computeIfAbsent(pos, v -> getRegions(world, pos));
+    private static List<Region> getIndexedRegions(State state, ServerWorld world, int minX, int minZ, int maxX, int maxZ)
+    {
+        RTree<Region> tree = state.index.get(world.key());
+        if (tree == null)
+        {
+            return Collections.emptyList();
+        }
+        List<Region> regions = new ArrayList<>();
+        tree.query(minX, minZ, maxX, maxZ, regions::add);
+        return regions;
     }
 
-    private List<Region> getRegions(ServerWorld world, Vector3i pos)
+    private RegionSet getRegions(ServerWorld world, Vector3i pos)
     {
-        int chunkX = pos.x() >> 4;
-        int chunkZ = pos.z() >> 4;
+        State state = this.state;
         List<Region> regions = new ArrayList<>();
-        regions.add(globalRegion);
+        regions.add(state.global);
         regions.add(getWorldRegion(world.key()));
-        regions.addAll(byChunk.getOrDefault(world.key(), Collections.emptyMap())
-                .getOrDefault(new Vector2i(chunkX, chunkZ), Collections.emptyList())
-                            .stream().filter(r -> r.contains(pos.toDouble()))
-                .collect(Collectors.toList()));
-        regions.sort(Comparator.comparingInt(Region::getPriority).reversed());
-        return regions;
+        Vector3d blockPos = pos.toDouble();
+        for (Region region : getIndexedRegions(state, world, pos.x(), pos.z(), pos.x(), pos.z()))
+        {
+            if (region.contains(blockPos))
+            {
+                regions.add(region);
+            }
+        }
+        return intern(new RegionSet(regions));
+    }
+
+    /**
+     * Resolves the regions of a whole chunk section if all blocks in it are in the same regions.
+     *
+     * @return the regions or {@link RegionCache#MIXED} when a region boundary crosses the section
+     */
+    private RegionSet getSectionRegions(ServerWorld world, Vector3i section)
+    {
+        State state = this.state;
+        List<Region> regions = new ArrayList<>();
+        regions.add(state.global);
+        regions.add(getWorldRegion(world.key()));
+        Vector3i from = section.mul(16);
+        Vector3i to = from.add(15, 15, 15);
+        for (Region region : getIndexedRegions(state, world, from.x(), from.z(), to.x(), to.z()))
+        {
+            Cuboid bounds = region.getCuboid();
+            Vector3d min = bounds.getMinimumPoint();
+            Vector3d max = bounds.getMaximumPoint();
+            // Region#contains also checks at head height
+            if (to.x() < min.x() || from.x() > max.x()
+             || to.y() + 2 < min.y() || from.y() > max.y()
+             || to.z() < min.z() || from.z() > max.z())
+            {
+                continue; // section is outside
+            }
+            if (region.isCuboid() && containsCorners(region, from, to))
+            {
+                regions.add(region); // section is inside
+                continue;
+            }
+            return RegionCache.MIXED;
+        }
+        return intern(new RegionSet(regions));
+    }
+
+    private static boolean containsCorners(Region region, Vector3i from, Vector3i to)
+    {
+        for (int x : new int[]{from.x(), to.x()})
+        {
+            for (int y : new int[]{from.y(), to.y()})
+            {
+                for (int z : new int[]{from.z(), to.z()})
+                {
+                    if (!region.getZone().shape.contains(new Vector3d(x, y, z)))
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private RegionSet intern(RegionSet regions)
+    {
+        synchronized (this.internedSets)
+        {
+            return this.internedSets.computeIfAbsent(regions, k -> k);
+        }
     }
 
     public Region getActiveRegion(CommandCause src)
@@ -181,47 +356,44 @@ public class RegionManager
 
     public Map<String, Region> getRegions(ResourceKey world)
     {
-        return this.byName.getOrDefault(world, Collections.emptyMap());
+        return this.state.byName.getOrDefault(world, Collections.emptyMap());
     }
 
     public Map<ResourceKey, Map<String,Region>> getRegions()
     {
-        return this.byName;
+        return this.state.byName;
     }
 
+    /**
+     * Reloads all regions from disk.
+     * <p>The region files are parsed and the per world indices are built on the loader threads.
+     * The new regions are published at once when everything is loaded.
+     */
     public void reload()
     {
+        long start = System.nanoTime();
+        Path regionsPath = modulePath.resolve("region");
+        List<Path> configPaths = new ArrayList<>();
         try
         {
-            Path regionsPath = modulePath.resolve("region");
-            RegionConfig globalConfig = reflector.load(RegionConfig.class, regionsPath.resolve("global.yml").toFile());
-            this.globalRegion = new Region(null, globalConfig, this);
-
-            this.byChunk.clear();
-            this.byName.clear();
-            this.markDirty();
             Files.createDirectories(regionsPath);
-            for (Path worldPath : Files.newDirectoryStream(regionsPath))
+            try (DirectoryStream<Path> worldPaths = Files.newDirectoryStream(regionsPath))
             {
-                if (Files.isDirectory(worldPath))
+                for (Path worldPath : worldPaths)
                 {
-                    for (Path configPath : Files.newDirectoryStream(worldPath, FileExtensionFilter.YAML))
+                    if (!Files.isDirectory(worldPath))
                     {
-                        if (configPath.getFileName().toString().equals("world.yml"))
-                        {
-                            continue;
-                        }
-                        RegionConfig config = reflector.load(RegionConfig.class, configPath.toFile());
-                        ZoneConfig zone = getZoned().getManager().getZone(config.name);
-                        if (zone == null)
+                        continue;
+                    }
+                    try (DirectoryStream<Path> configs = Files.newDirectoryStream(worldPath, FileExtensionFilter.YAML))
+                    {
+                        for (Path configPath : configs)
                         {
-                            logger.info("Converting old region to zone format");
-                            zone = reflector.create(ZoneConfig.class);
-                            zone.world = config.world;
-                            zone.shape = convertedCuboid(config);
-                            getZoned().getManager().define(Sponge.game().systemSubject(), config.name, zone, false);
+                            if (!configPath.getFileName().toString().equals("world.yml"))
+                            {
+                                configPaths.add(configPath);
+                            }
                         }
-                        loadRegion(new Region(zone, config, this));
                     }
                 }
             }
@@ -230,6 +402,73 @@ public class RegionManager
         {
             throw new IllegalStateException(e);
         }
+
+        CompletableFuture<RegionConfig> globalConfig = supplyAsync(() -> reflector.load(RegionConfig.class, regionsPath.resolve("global.yml").toFile()), loader);
+        List<CompletableFuture<RegionConfig>> futures = new ArrayList<>();
+        for (Path configPath : configPaths)
+        {
+            futures.add(supplyAsync(() -> reflector.load(RegionConfig.class, configPath.toFile()), loader));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        long parsed = System.nanoTime();
+
+        // Zones and worlds are resolved on the calling thread
+        Map<ResourceKey, Map<String, Region>> byName = new HashMap<>();
+        for (CompletableFuture<RegionConfig> future : futures)
+        {
+            RegionConfig config = future.join();
+            ZoneConfig zone = getZoned().getManager().getZone(config.name);
+            if (zone == null)
+            {
+                logger.info("Converting old region to zone format");
+                zone = reflector.create(ZoneConfig.class);
+                zone.world = config.world;
+                zone.shape = convertedCuboid(config);
+                getZoned().getManager().define(Sponge.game().systemSubject(), config.name, zone, false);
+            }
+            Region region = new Region(zone, config, this);
+            ServerWorld world = region.getWorld();
+            if (world == null)
+            {
+                logger.warn("Region {} was not loaded: Could not find world {}.", region.getName(), region.getWorldName());
+                continue;
+            }
+            byName.computeIfAbsent(world.key(), k -> new HashMap<>()).put(region.getName().toLowerCase(), region);
+        }
+
+        Map<ResourceKey, CompletableFuture<RTree<Region>>> indexFutures = new HashMap<>();
+        for (Map.Entry<ResourceKey, Map<String, Region>> entry : byName.entrySet())
+        {
+            indexFutures.put(entry.getKey(), supplyAsync(() -> buildIndex(entry.getValue().values()), loader));
+        }
+        Map<ResourceKey, RTree<Region>> index = new HashMap<>();
+        indexFutures.forEach((world, future) -> index.put(world, future.join()));
+        long indexed = System.nanoTime();
+
+        Region global = new Region(null, globalConfig.join(), this);
+        synchronized (this)
+        {
+            this.state = new State(global, byName, index);
+        }
+        this.markDirty();
+
+        logger.info("{} Regions loaded in {}ms (parsing {}ms, indexing {}ms)", this.getRegionCount(),
+                     TimeUnit.NANOSECONDS.toMillis(indexed - start),
+                     TimeUnit.NANOSECONDS.toMillis(parsed - start),
+                     TimeUnit.NANOSECONDS.toMillis(indexed - parsed));
+    }
+
+    private static RTree<Region> buildIndex(Collection<Region> regions)
+    {
+        RTree<Region> tree = new RTree<>();
+        for (Region region : regions)
+        {
+            Cuboid cuboid = region.getCuboid();
+            Vector3d min = cuboid.getMinimumPoint();
+            Vector3d max = cuboid.getMaximumPoint();
+            tree.insert(min.x(), min.z(), max.x(), max.z(), region);
+        }
+        return tree;
     }
 
     @SuppressWarnings("deprecation")
@@ -240,7 +479,7 @@ public class RegionManager
 
     public int getRegionCount()
     {
-        return this.byName.values().stream().mapToInt(Map::size).sum();
+        return this.state.byName.values().stream().mapToInt(Map::size).sum();
     }
 
     public boolean hasRegion(ServerWorld world, String name)
@@ -249,7 +488,7 @@ public class RegionManager
     }
 
     public Region getGlobalRegion() {
-        return globalRegion;
+        return this.state.global;
     }
 
     public Region getWorldRegion(ResourceKey world)
@@ -282,25 +521,132 @@ public class RegionManager
 
     public void markDirty()
     {
+        this.generation.incrementAndGet();
         this.regionCache.clear();
+        this.worldMoveMasks.clear();
+        synchronized (this.internedSets)
+        {
+            this.internedSets.clear();
+        }
+    }
+
+    /**
+     * Invalidates the cached lookups affected by given region
+     *
+     * @param region the changed region
+     */
+    public void markDirty(Region region)
+    {
+        this.generation.incrementAndGet();
+        if (region.isGlobal())
+        {
+            this.markDirty();
+            return;
+        }
+        synchronized (this.internedSets)
+        {
+            this.internedSets.keySet().removeIf(set -> set.contains(region));
+        }
+        ServerWorld world = region.getWorld();
+        if (world == null)
+        {
+            return;
+        }
+        this.worldMoveMasks.remove(world.key());
+        Cuboid cuboid = region.getCuboid();
+        if (cuboid == null) // world region
+        {
+            this.regionCache.invalidate(world.key());
+            return;
+        }
+        Vector3i min = cuboid.getMinimumPoint().toInt();
+        Vector3i max = cuboid.getMaximumPoint().toInt();
+        this.regionCache.invalidateChunks(world.key(), min.x() >> 4, min.z() >> 4, max.x() >> 4, max.z() >> 4);
     }
 
     public boolean deleteRegion(Region region)
     {
         if (region.getConfig().getFile().delete())
         {
-            this.reload();
+            this.unloadRegion(region);
             return true;
         }
         return false;
     }
 
+    /**
+     * Removes a region from the index and invalidates the lookups in its area
+     *
+     * @param region the region
+     */
+    private void unloadRegion(Region region)
+    {
+        ServerWorld world = region.getWorld();
+        if (world == null)
+        {
+            return;
+        }
+        this.updateWorld(world.key(), regions -> regions.remove(region.getName().toLowerCase(), region));
+        this.markDirty(region);
+    }
+
+    /**
+     * Updates the region of a changed zone without reloading all regions
+     *
+     * @param zone the changed zone
+     */
+    public void updateZone(ZoneConfig zone)
+    {
+        for (Map<String, Region> regions : this.state.byName.values())
+        {
+            Region region = regions.get(zone.name.toLowerCase());
+            if (region != null && region.getZone() != null && region.getZone().name.equals(zone.name))
+            {
+                this.unloadRegion(region);
+                region.setZone(zone);
+                if (zone.world != null && !zone.world.getName().equals(region.getWorldName()))
+                {
+                    this.moveRegion(region, zone.world);
+                }
+                this.loadRegion(region);
+                this.markDirty(region);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the config of a region into the directory of another world
+     */
+    private void moveRegion(Region region, ConfigWorld world)
+    {
+        RegionConfig config = region.getConfig();
+        File oldFile = config.getFile();
+        config.world = world;
+        Path dir = modulePath.resolve("region").resolve(world.getName());
+        try
+        {
+            Files.createDirectories(dir);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        config.setFile(dir.resolve(config.name + ".yml").toFile());
+        config.save();
+        if (oldFile != null && !oldFile.equals(config.getFile()) && !oldFile.delete())
+        {
+            logger.warn("Could not delete the old config of region {}: {}", region.getName(), oldFile);
+        }
+    }
+
     public Region newRegion(ZoneConfig zone)
     {
         RegionConfig config = reflector.create(RegionConfig.class);
         config.name = zone.name;
         config.world = zone.world;
         Region region = this.loadRegion(new Region(zone, config, this));
+        this.markDirty(region);
         Path dir = modulePath.resolve("region").resolve(config.world.getName());
         try
         {
@@ -315,6 +661,22 @@ public class RegionManager
         return region;
     }
 
+    private static class LoaderThreadFactory extends BaseThreadFactory
+    {
+        public LoaderThreadFactory()
+        {
+            super("CubeEngine" + " - " + RegionManager.class.getSimpleName(), RegionManager.class.getPackage().getName());
+        }
+
+        @Override
+        protected Thread createThread(ThreadGroup threadGroup, Runnable r, String name)
+        {
+            Thread thread = new Thread(threadGroup, r, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     public Zoned getZoned()
     {
         if (this.zoned == null)
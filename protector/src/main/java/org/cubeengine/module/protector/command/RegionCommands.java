@@ -39,6 +39,7 @@ import org.cubeengine.libcube.service.command.annotation.Option;
 import org.cubeengine.libcube.service.command.annotation.Using;
 import org.cubeengine.libcube.service.i18n.I18n;
 import org.cubeengine.libcube.util.math.shape.Cuboid;
+import org.cubeengine.module.protector.RegionCache;
 import org.cubeengine.module.protector.RegionManager;
 import org.cubeengine.module.protector.command.parser.TristateParser;
 import org.cubeengine.module.protector.region.Region;
@@ -326,6 +327,22 @@ public class RegionCommands extends DispatcherCommand
         i18n.send(context, POSITIVE, "The region {name} was deleted.", region.toString());
     }
 
+    @Command(desc = "Reloads all regions from disk")
+    public void reload(CommandCause context)
+    {
+        manager.reload();
+        i18n.send(context, POSITIVE, "{amount} regions reloaded.", manager.getRegionCount());
+    }
+
+    @Command(desc = "Shows region lookup cache statistics")
+    public void cachestats(CommandCause context)
+    {
+        RegionCache cache = manager.getRegionCache();
+        i18n.send(context, NEUTRAL, "Cached positions: {amount} (max. {amount} per world)", cache.size(), cache.getMaxSize());
+        i18n.send(context, NEUTRAL, "Cached sections: {amount} Section hits: {amount}", cache.sectionCount(), cache.getSectionHits());
+        i18n.send(context, NEUTRAL, "Hits: {amount} Misses: {amount} Evictions: {amount}", cache.getHits(), cache.getMisses(), cache.getEvictions());
+    }
+
     public void parent(CommandCause context, Region parent, @Default Region region)
     {
 
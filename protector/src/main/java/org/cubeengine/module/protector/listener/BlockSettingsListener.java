@@ -17,6 +17,8 @@
  */
 package org.cubeengine.module.protector.listener;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -27,14 +29,18 @@ import org.cubeengine.libcube.service.permission.PermissionContainer;
 import org.cubeengine.libcube.service.permission.PermissionManager;
 import org.cubeengine.module.protector.Protector;
 import org.cubeengine.module.protector.RegionManager;
-import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.CompiledSettings;
+import org.cubeengine.module.protector.region.CompiledSettings.Setting;
+import org.cubeengine.module.protector.region.RegionSet;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockSnapshot;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.data.Transaction;
 import org.spongepowered.api.entity.living.Hostile;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import org.spongepowered.api.entity.weather.LightningBolt;
+import org.spongepowered.api.event.Cancellable;
 import org.spongepowered.api.event.EventContextKeys;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.Order;
@@ -75,14 +81,20 @@ public class BlockSettingsListener extends PermissionContainer
     @Listener(order = Order.EARLY)
     public void onPreChangeBlock(ChangeBlockEvent.Pre event, @Root LocatableBlock block)
     {
-        for (ServerLocation loc : event.locations()) {
-
-            if (loc.blockType() != BlockTypes.AIR.get() && loc.blockType() != block.blockState().type()) {
-                List<Region> regionsAt = manager.getRegionsAt(loc);
-                if (checkSetting(event, null, regionsAt, () -> null, s -> s.blockDamage.block.getOrDefault(block.blockState().type() , UNDEFINED), UNDEFINED) == FALSE)
-                {
-                    return;
-                }
+        BlockType type = block.blockState().type();
+        List<ServerLocation> locations = new ArrayList<>();
+        for (ServerLocation loc : event.locations())
+        {
+            if (loc.blockType() != BlockTypes.AIR.get() && loc.blockType() != type)
+            {
+                locations.add(loc);
+            }
+        }
+        for (RegionSet regions : manager.getRegionSetsAt(locations))
+        {
+            if (checkSetting(event, null, null, regions.getSettings().blockDamage(type), UNDEFINED) == FALSE)
+            {
+                return;
             }
         }
     }
@@ -91,24 +103,24 @@ public class BlockSettingsListener extends PermissionContainer
     public void onChangeBlock(ExplosionEvent.Detonate event)
     {
         Object rootCause = event.cause().root();
-        // Check Explosions first...
+        ServerPlayer player = event.cause().context().get(EventContextKeys.CREATOR).flatMap(s -> Sponge.server().player(s)).orElse(null);
+        if (player == null)
+        {
+            player = event.cause().context().get(EventContextKeys.IGNITER).filter(p -> p instanceof ServerPlayer).map(ServerPlayer.class::cast).orElse(null);
+        }
+        if (rootCause instanceof ServerPlayer)
+        {
+            player = ((ServerPlayer) rootCause);
+        }
 
-        for (ServerLocation loc : event.affectedLocations())
+        // Check Explosions first...
+        for (RegionSet regions : manager.getRegionSetsAt(event.affectedLocations()))
         {
-            List<Region> regionsAt = manager.getRegionsAt(loc);
-            checkSetting(event, null, regionsAt, () -> null, (s) -> s.blockDamage.allExplosion, UNDEFINED);
-            ServerPlayer player = event.cause().context().get(EventContextKeys.CREATOR).flatMap(s -> Sponge.server().player(s)).orElse(null);
-            if (player == null)
-            {
-                player = event.cause().context().get(EventContextKeys.IGNITER).filter(p -> p instanceof ServerPlayer).map(ServerPlayer.class::cast).orElse(null);
-            }
-            if (rootCause instanceof ServerPlayer)
-            {
-                player = ((ServerPlayer) rootCause);
-            }
+            CompiledSettings settings = regions.getSettings();
+            checkSetting(event, null, null, settings.get(Setting.BLOCKDAMAGE_ALL_EXPLOSION), UNDEFINED);
             if (player != null)
             {
-                checkSetting(event, player, regionsAt, () -> explodePlayer, (s) -> s.blockDamage.playerExplosion, UNDEFINED);
+                checkSetting(event, player, explodePlayer, settings.get(Setting.BLOCKDAMAGE_PLAYER_EXPLOSION), UNDEFINED);
                 if (event.isCancelled())
                 {
                     i18n.send(ChatType.ACTION_BAR, player, CRITICAL, "You are not allowed to let stuff explode here!");
@@ -125,13 +137,23 @@ public class BlockSettingsListener extends PermissionContainer
     public void onChangeBlock(ChangeBlockEvent.All event)
     {
         Object rootCause = event.cause().root();
+        if (!(rootCause instanceof Hostile || rootCause instanceof LocatableBlock || rootCause instanceof LightningBolt))
+        {
+            return;
+        }
+        List<ServerLocation> locations = new ArrayList<>();
+        for (Transaction<BlockSnapshot> trans : event.transactions())
+        {
+            trans.original().location().ifPresent(locations::add);
+        }
+        Collection<RegionSet> regionSets = manager.getRegionSetsAt(locations);
+
         // Hostile Mob causes BlockChange?
         if (rootCause instanceof Hostile)
         {
-            for (Transaction<BlockSnapshot> trans : event.transactions())
+            for (RegionSet regions : regionSets)
             {
-                List<Region> regionsAt = manager.getRegionsAt(trans.original().location().get());
-                if (checkSetting(event, null, regionsAt, () -> null, (s) -> s.blockDamage.monster, UNDEFINED) == FALSE)
+                if (checkSetting(event, null, null, regions.getSettings().get(Setting.BLOCKDAMAGE_MONSTER), UNDEFINED) == FALSE)
                 {
                     return;
                 }
@@ -141,10 +163,10 @@ public class BlockSettingsListener extends PermissionContainer
         // Block causes BlockChange?
         if (rootCause instanceof LocatableBlock)
         {
-            for (Transaction<BlockSnapshot> trans : event.transactions())
+            BlockType type = ((LocatableBlock) rootCause).blockState().type();
+            for (RegionSet regions : regionSets)
             {
-                List<Region> regionsAt = manager.getRegionsAt(trans.original().location().get());
-                if (checkSetting(event, null, regionsAt, () -> null, s -> s.blockDamage.block.getOrDefault(((LocatableBlock) rootCause).blockState().type() , UNDEFINED), UNDEFINED) == FALSE)
+                if (checkSetting(event, null, null, regions.getSettings().blockDamage(type), UNDEFINED) == FALSE)
                 {
                     return;
                 }
@@ -153,10 +175,9 @@ public class BlockSettingsListener extends PermissionContainer
 
         if (rootCause instanceof LightningBolt)
         {
-            for (Transaction<BlockSnapshot> trans : event.transactions())
+            for (RegionSet regions : regionSets)
             {
-                List<Region> regionsAt = manager.getRegionsAt(trans.original().location().get());
-                if (checkSetting(event, null, regionsAt, () -> null, s -> s.blockDamage.lightning, UNDEFINED) == FALSE)
+                if (checkSetting(event, null, null, regions.getSettings().get(Setting.BLOCKDAMAGE_LIGHTNING), UNDEFINED) == FALSE)
                 {
                     return;
                 }
@@ -172,15 +193,7 @@ public class BlockSettingsListener extends PermissionContainer
             return;
         }
 
-        for (ServerLocation loc : event.locations())
-        {
-            List<Region> regionsAt = manager.getRegionsAt(loc);
-            if (checkSetting(event, player, regionsAt, () -> null, (s) -> s.build, UNDEFINED) == FALSE)
-            {
-                i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "You are not allowed to build here.");
-                return;
-            }
-        }
+        this.checkBuild(event, player, event.locations());
     }
 
     @Listener(order = Order.EARLY)
@@ -191,20 +204,27 @@ public class BlockSettingsListener extends PermissionContainer
             return;
         }
 
+        List<ServerLocation> locations = new ArrayList<>();
         for (Transaction<BlockSnapshot> transaction : event.transactions())
         {
             if (transaction.original().state().type() == transaction.finalReplacement().state().type())
             {
                 continue;
             }
-            transaction.original().location().ifPresent(loc -> {
-                List<Region> regionsAt = manager.getRegionsAt(loc);
-                if (checkSetting(event, player, regionsAt, () -> null, (s) -> s.build, UNDEFINED) == FALSE)
-                {
-                    i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "You are not allowed to build here.");
-                    return;
-                }
-            });
+            transaction.original().location().ifPresent(locations::add);
+        }
+        this.checkBuild(event, player, locations);
+    }
+
+    private void checkBuild(Cancellable event, ServerPlayer player, Collection<ServerLocation> locations)
+    {
+        for (RegionSet regions : manager.getRegionSetsAt(locations))
+        {
+            if (checkSetting(event, player, null, regions.getSettings().get(Setting.BUILD), UNDEFINED) == FALSE)
+            {
+                i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "You are not allowed to build here.");
+                return;
+            }
         }
     }
-}
\ No newline at end of file
+}
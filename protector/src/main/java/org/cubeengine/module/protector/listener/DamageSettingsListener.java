@@ -17,7 +17,6 @@
  */
 package org.cubeengine.module.protector.listener;
 
-import java.util.List;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.cubeengine.libcube.service.i18n.I18n;
@@ -26,7 +25,8 @@ import org.cubeengine.libcube.service.permission.PermissionContainer;
 import org.cubeengine.libcube.service.permission.PermissionManager;
 import org.cubeengine.module.protector.Protector;
 import org.cubeengine.module.protector.RegionManager;
-import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.CompiledSettings;
+import org.cubeengine.module.protector.region.CompiledSettings.Setting;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.entity.living.Living;
@@ -94,18 +94,18 @@ public class DamageSettingsListener extends PermissionContainer
             playerSource = ((ServerPlayer) entitySource);
         }
 
-        List<Region> regionsAt = manager.getRegionsAt(target.serverLocation());
+        CompiledSettings settings = manager.getRegionsAt(target.serverLocation()).getSettings();
 
-        Tristate defaultTo = checkSetting(event, playerSource, regionsAt, () -> entityDamageAll, s -> s.entityDamage.all, UNDEFINED);
+        Tristate defaultTo = checkSetting(event, playerSource, entityDamageAll, settings.get(Setting.ENTITYDAMAGE_ALL), UNDEFINED);
 
         if (entitySource instanceof Living)
         {
-            defaultTo = checkSetting(event, playerSource, regionsAt, () -> entityDamageLiving, s -> s.entityDamage.byLiving, defaultTo);
+            defaultTo = checkSetting(event, playerSource, entityDamageLiving, settings.get(Setting.ENTITYDAMAGE_BY_LIVING), defaultTo);
         }
         if (entitySource != null)
         {
             EntityType type = entitySource.type();
-            checkSetting(event, null, regionsAt, () -> null, s -> s.entityDamage.byEntity.getOrDefault(type, UNDEFINED), defaultTo);
+            checkSetting(event, null, null, settings.entityDamage(type), defaultTo);
         }
     }
 
@@ -113,17 +113,17 @@ public class DamageSettingsListener extends PermissionContainer
     {
         Entity entitySource = getEntitySource(event);
 
-        List<Region> regionsAt = manager.getRegionsAt(target.serverLocation());
+        CompiledSettings settings = manager.getRegionsAt(target.serverLocation()).getSettings();
 
-        Tristate defaultTo = checkSetting(event, target, regionsAt, () -> playerDamgeAll, s -> s.playerDamage.all, UNDEFINED);
+        Tristate defaultTo = checkSetting(event, target, playerDamgeAll, settings.get(Setting.PLAYERDAMAGE_ALL), UNDEFINED);
 
         if (entitySource instanceof Living)
         {
-            defaultTo = checkSetting(event, target, regionsAt, () -> playerDamgeLiving, s -> s.playerDamage.byLiving, defaultTo);
+            defaultTo = checkSetting(event, target, playerDamgeLiving, settings.get(Setting.PLAYERDAMAGE_BY_LIVING), defaultTo);
         }
         if (entitySource instanceof Player)
         {
-            checkSetting(event, target, regionsAt, () -> playerDamgePVP, s -> s.playerDamage.pvp, defaultTo);
+            checkSetting(event, target, playerDamgePVP, settings.get(Setting.PLAYERDAMAGE_PVP), defaultTo);
         }
     }
 
@@ -146,8 +146,8 @@ public class DamageSettingsListener extends PermissionContainer
     @Listener(order = Order.EARLY)
     public void onTargetPlayer(SetAITargetEvent event, @Getter("target") ServerPlayer player)
     {
-        List<Region> regions = manager.getRegionsAt(player.serverLocation());
-        checkSetting(event, player, regions, () -> this.playerTargeting, s -> s.playerDamage.aiTargeting, UNDEFINED);
+        CompiledSettings settings = manager.getRegionsAt(player.serverLocation()).getSettings();
+        checkSetting(event, player, this.playerTargeting, settings.get(Setting.PLAYERDAMAGE_AI_TARGETING), UNDEFINED);
     }
 
 }
\ No newline at end of file
@@ -18,7 +18,6 @@
 package org.cubeengine.module.protector.listener;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -31,7 +30,8 @@ import org.cubeengine.libcube.service.permission.PermissionContainer;
 import org.cubeengine.libcube.service.permission.PermissionManager;
 import org.cubeengine.module.protector.Protector;
 import org.cubeengine.module.protector.RegionManager;
-import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.CompiledSettings;
+import org.cubeengine.module.protector.region.CompiledSettings.Setting;
 import org.spongepowered.api.ResourceKey;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
@@ -91,8 +91,8 @@ public class InteractSettingsListener extends PermissionContainer
     @Listener
     public void onEntityUse(InteractEntityEvent.Secondary event, @Root ServerPlayer player)
     {
-        List<Region> regionsAt = manager.getRegionsAt(player.serverLocation());
-        if (checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.ENTITY), (s) -> s.use.all.entity, UNDEFINED) == FALSE)
+        CompiledSettings settings = manager.getRegionsAt(player.serverLocation()).getSettings();
+        if (checkSetting(event, player, usePermission.get(UseType.ENTITY), settings.get(Setting.USE_ALL_ENTITY), UNDEFINED) == FALSE)
         {
             i18n.send(ChatType.ACTION_BAR, player, CRITICAL, "You are not allowed to interact with this entity here.");
         }
@@ -111,11 +111,11 @@ public class InteractSettingsListener extends PermissionContainer
     public void onUseItem(InteractItemEvent.Secondary event, @Root ServerPlayer player)
     {
         ItemType item = event.itemStack().type();
-        List<Region> regionsAt = manager.getRegionsAt(player.serverLocation());
+        CompiledSettings settings = manager.getRegionsAt(player.serverLocation()).getSettings();
         final ResourceKey itemKey = item.key(RegistryTypes.ITEM_TYPE);
         Permission usePerm = pm.register(SettingsListener.class, itemKey.value(), "Allows interacting with a " + PlainTextComponentSerializer.plainText().serialize(item.asComponent()) + " Item in hand", useItemPerm);
-        Tristate set = checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.ITEM), s -> s.use.all.item, UNDEFINED);
-        if (checkSetting(event, player, regionsAt, () -> usePerm, (s) -> s.use.item.getOrDefault(item, UNDEFINED), set) == FALSE)
+        Tristate set = checkSetting(event, player, usePermission.get(UseType.ITEM), settings.get(Setting.USE_ALL_ITEM), UNDEFINED);
+        if (checkSetting(event, player, usePerm, settings.useItem(item), set) == FALSE)
         {
             i18n.send(ChatType.ACTION_BAR, player, CRITICAL, "You are not allowed to use this here.");
         }
@@ -127,7 +127,7 @@ public class InteractSettingsListener extends PermissionContainer
     {
         final ServerLocation loc = player.world().location(event.interactionPoint());
         // cause when the player tries to place a block and it cannot the client will not send the clicked location
-        List<Region> regionsAt = manager.getRegionsAt(loc);
+        CompiledSettings settings = manager.getRegionsAt(loc).getSettings();
         BlockType type = event.block().state().type();
         ItemStack item = player.itemInHand(HandTypes.MAIN_HAND);
 
@@ -137,15 +137,15 @@ public class InteractSettingsListener extends PermissionContainer
         Tristate set = UNDEFINED;
         if (type != BlockTypes.AIR.get())
         {
-            set = checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.BLOCK), s -> s.use.all.block, set);
+            set = checkSetting(event, player, usePermission.get(UseType.BLOCK), settings.get(Setting.USE_ALL_BLOCK), set);
         }
         if (type.defaultState().supports(Keys.IS_OPEN))
         {
-            set = checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.OPEN), s -> s.use.all.open, set);
+            set = checkSetting(event, player, usePermission.get(UseType.OPEN), settings.get(Setting.USE_ALL_OPEN), set);
         }
         if (type.defaultState().supports(Keys.IS_POWERED))
         {
-            set = checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.REDSTONE), s -> s.use.all.redstone, set);
+            set = checkSetting(event, player, usePermission.get(UseType.REDSTONE), settings.get(Setting.USE_ALL_REDSTONE), set);
         }
 
         if (loc.blockEntity().isPresent())
@@ -154,11 +154,11 @@ public class InteractSettingsListener extends PermissionContainer
             if (blockEntity instanceof Carrier)
             {
                 // TODO check if this is right
-                set = checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.CONTAINER), s -> s.use.all.container, set);
+                set = checkSetting(event, player, usePermission.get(UseType.CONTAINER), settings.get(Setting.USE_ALL_CONTAINER), set);
             }
         }
 
-        set = checkSetting(event, player, regionsAt, () -> blockPerm, (s) -> s.use.block.getOrDefault(type, UNDEFINED), set);
+        set = checkSetting(event, player, blockPerm, settings.useBlock(type), set);
         if (set == FALSE)
         {
             i18n.send(ChatType.ACTION_BAR, player, CRITICAL, "You are not allowed to interact with this here.");
@@ -168,11 +168,11 @@ public class InteractSettingsListener extends PermissionContainer
         if (item != null)
         {
             // Check all items
-            set = checkSetting(event, player, regionsAt, () -> usePermission.get(UseType.ITEM), s -> s.use.all.item, UNDEFINED);
+            set = checkSetting(event, player, usePermission.get(UseType.ITEM), settings.get(Setting.USE_ALL_ITEM), UNDEFINED);
             final ResourceKey itemKey = item.type().key(RegistryTypes.ITEM_TYPE);
             Permission usePerm = pm.register(SettingsListener.class, itemKey.value(), "Allows interacting with a " + PlainComponentSerializer.plain().serialize(item.type().asComponent()) + " Item in hand", useItemPerm);
             // Then check individual item
-            if (checkSetting(event, player, regionsAt, () -> usePerm, (s) -> s.use.item.getOrDefault(item.type(), UNDEFINED), set) == FALSE)
+            if (checkSetting(event, player, usePerm, settings.useItem(item.type()), set) == FALSE)
             {
                 i18n.send(ChatType.ACTION_BAR, player, CRITICAL, "You are not allowed to use this here.");
             }
@@ -27,9 +27,11 @@ import org.cubeengine.libcube.service.i18n.I18nTranslate.ChatType;
 import org.cubeengine.libcube.service.permission.Permission;
 import org.cubeengine.libcube.service.permission.PermissionContainer;
 import org.cubeengine.libcube.service.permission.PermissionManager;
+import org.cubeengine.module.protector.PlayerRegionTracker;
 import org.cubeengine.module.protector.Protector;
 import org.cubeengine.module.protector.RegionManager;
 import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.RegionSet;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import org.spongepowered.api.event.Listener;
@@ -39,8 +41,9 @@ import org.spongepowered.api.event.entity.ChangeEntityWorldEvent.Reposition;
 import org.spongepowered.api.event.entity.MoveEntityEvent;
 import org.spongepowered.api.event.filter.Getter;
 import org.spongepowered.api.event.filter.cause.Root;
-import org.spongepowered.api.util.Tristate;
 import org.spongepowered.api.world.server.ServerWorld;
+import org.spongepowered.math.GenericMath;
+import org.spongepowered.math.vector.Vector3d;
 
 import static org.cubeengine.libcube.service.i18n.formatter.MessageType.NEGATIVE;
 import static org.spongepowered.api.util.Tristate.FALSE;
@@ -52,13 +55,15 @@ public class MoveSettingsListener extends PermissionContainer
     public final Map<MoveType, Permission> movePerms = new HashMap<>();
 
     private RegionManager manager;
+    private PlayerRegionTracker tracker;
     private I18n i18n;
 
     @Inject
-    public MoveSettingsListener(RegionManager manager, PermissionManager pm, I18n i18n)
+    public MoveSettingsListener(RegionManager manager, PlayerRegionTracker tracker, PermissionManager pm, I18n i18n)
     {
         super(pm, Protector.class);
         this.manager = manager;
+        this.tracker = tracker;
         this.i18n = i18n;
 
         // TODO ENTER remember last valid pos.
@@ -78,29 +83,33 @@ public class MoveSettingsListener extends PermissionContainer
     public void onMove(MoveEntityEvent event, @Getter("entity") ServerPlayer player)
     {
         // Ignore subblock movements
-        if (event.destinationPosition().toInt().equals(event.originalPosition().toInt()))
+        Vector3d origin = event.originalPosition();
+        Vector3d destination = event.destinationPosition();
+        if (GenericMath.floor(origin.x()) == GenericMath.floor(destination.x())
+         && GenericMath.floor(origin.y()) == GenericMath.floor(destination.y())
+         && GenericMath.floor(origin.z()) == GenericMath.floor(destination.z()))
         {
             return;
         }
 
         if (event instanceof ChangeEntityWorldEvent.Reposition)
         {
-            List<Region> from = manager.getRegionsAt(((Reposition)event).originalWorld(), event.originalPosition().toInt());
-            List<Region> to = manager.getRegionsAt(((Reposition)event).destinationWorld(), event.destinationPosition().toInt());
-            if (from.isEmpty() && to.isEmpty())
+            ServerWorld fromWorld = ((Reposition)event).originalWorld();
+            // If no region has a Teleport setting set ignore this.
+            if (!manager.hasMoveSetting(fromWorld, MoveType.TELEPORT))
             {
                 return;
             }
-
-            // If no region has a Teleport setting set ignore this.
-            if (from.stream().anyMatch(region -> region.getSettings().move.getOrDefault(MoveType.TELEPORT, UNDEFINED) != UNDEFINED))
+            RegionSet from = tracker.getRegions(player, fromWorld, origin);
+            if (from.hasMoveSetting(MoveType.TELEPORT))
             {
-                if (checkMove(event, player, from, to, MoveType.TELEPORT, false))
+                RegionSet to = manager.getRegionsAt(((Reposition)event).destinationWorld(), destination.toInt());
+                if (checkMove(event, player, from, MoveType.TELEPORT))
                 {
                     return; // Teleport out denied
                 }
 
-                if (checkMove(event, player, to, from, MoveType.TELEPORT, false))
+                if (checkMove(event, player, to, MoveType.TELEPORT))
                 {
                     return; // Teleport in denied
                 }
@@ -108,32 +117,42 @@ public class MoveSettingsListener extends PermissionContainer
         }
         else
         {
-            List<Region> from = manager.getRegionsAt(player.world(), event.originalPosition().toInt());
-            List<Region> to = manager.getRegionsAt(player.world(), event.destinationPosition().toInt());
-            if (from.isEmpty() && to.isEmpty())
+            ServerWorld world = player.world();
+            if (!manager.hasMoveSettings(world))
+            {
+                return; // No move restrictions in this world
+            }
+            RegionSet from = tracker.getRegions(player, world, origin);
+            RegionSet to = manager.getRegionsAt(world, destination.toInt());
+            if ((from.getMoveMask() | to.getMoveMask()) == 0)
             {
                 return;
             }
 
-            if (from.stream().anyMatch(region -> region.getSettings().move.getOrDefault(MoveType.MOVE, UNDEFINED) != UNDEFINED))
+            if (from.hasMoveSetting(MoveType.MOVE))
             {
-                if (checkMove(event, player, from, to, MoveType.MOVE, false))
+                if (checkMove(event, player, from, MoveType.MOVE))
                 {
                     i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "You are not allowed to move in here.");
                     return; // Move in from denied
                 }
             }
-            if (from.stream().anyMatch(region -> region.getSettings().move.getOrDefault(MoveType.EXIT, UNDEFINED) != UNDEFINED))
+            if (from == to)
+            {
+                return; // Region sets are interned: no region was entered or left
+            }
+            RegionSet.Transition transition = from.transitionTo(to);
+            if (from.hasMoveSetting(MoveType.EXIT))
             {
-                if (checkMove(event, player, from, to, MoveType.EXIT, true))
+                if (checkCrossed(event, player, transition.getLeft(), MoveType.EXIT))
                 {
                     i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "You are not allowed to exit this area.");
                     return; // Move out of from denied
                 }
             }
-            if (from.stream().anyMatch(region -> region.getSettings().move.getOrDefault(MoveType.ENTER, UNDEFINED) != UNDEFINED))
+            if (to.hasMoveSetting(MoveType.ENTER))
             {
-                if (checkMove(event, player, to, from, MoveType.ENTER, true))
+                if (checkCrossed(event, player, transition.getEntered(), MoveType.ENTER))
                 {
                     i18n.send(ChatType.ACTION_BAR, player, NEGATIVE, "You are not allowed to enter this area.");
                     return; // Move into to denied
@@ -142,30 +161,35 @@ public class MoveSettingsListener extends PermissionContainer
         }
     }
 
-    private boolean checkMove(MoveEntityEvent event, @Root ServerPlayer player, List<Region> source, List<Region> dest, MoveType type, boolean contain)
+    private boolean checkMove(MoveEntityEvent event, @Root ServerPlayer player, RegionSet source, MoveType type)
+    {
+        if (source.getSettings().move(type) == FALSE && !this.movePerms.get(type).check(player))
+        {
+            event.setCancelled(true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the regions entered or left by a move
+     *
+     * @param crossed the regions entered or left
+     *
+     * @return true if any of the regions denies crossing it and the move was cancelled
+     */
+    private boolean checkCrossed(MoveEntityEvent event, ServerPlayer player, List<Region> crossed, MoveType type)
     {
-        Permission perm = this.movePerms.get(type);
-        if (!perm.check(player))
+        for (Region region : crossed)
         {
-            Tristate allow = UNDEFINED;
-            for (Region region : source)
+            if (region.getSettings().move.getOrDefault(type, UNDEFINED) == FALSE)
             {
-                allow = allow.and(region.getSettings().move.getOrDefault(type, UNDEFINED));
-                if (allow != UNDEFINED)
+                if (this.movePerms.get(type).check(player))
                 {
-                    if (allow == FALSE)
-                    {
-                        if (!contain || !dest.contains(region))
-                        {
-                            event.setCancelled(true);
-                            return true;
-                        }
-                    }
-                    if (!contain)
-                    {
-                        break;
-                    }
+                    return false;
                 }
+                event.setCancelled(true);
+                return true;
             }
         }
         return false;
@@ -17,9 +17,8 @@
  */
 package org.cubeengine.module.protector.listener;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
-import java.util.function.Supplier;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.cubeengine.libcube.service.i18n.I18n;
@@ -29,8 +28,7 @@ import org.cubeengine.libcube.service.permission.PermissionContainer;
 import org.cubeengine.libcube.service.permission.PermissionManager;
 import org.cubeengine.module.protector.Protector;
 import org.cubeengine.module.protector.RegionManager;
-import org.cubeengine.module.protector.region.Region;
-import org.cubeengine.module.protector.region.RegionConfig;
+import org.cubeengine.module.protector.region.CompiledSettings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.manager.CommandMapping;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
@@ -63,37 +61,35 @@ public class SettingsListener extends PermissionContainer
     }
 
 
-    public static Tristate checkSetting(Cancellable event, ServerPlayer player, List<Region> regionsAt, Supplier<Permission> perm, Function<RegionConfig.Settings, Tristate> func, Tristate defaultTo)
+    /**
+     * Applies a resolved region setting to the event
+     *
+     * @param event the event to cancel or uncancel
+     * @param player the player to check the bypass permission for
+     * @param permission the bypass permission
+     * @param allow the setting resolved from {@link CompiledSettings}
+     * @param defaultTo the value to return if the setting is undefined
+     *
+     * @return the effective setting
+     */
+    public static Tristate checkSetting(Cancellable event, ServerPlayer player, Permission permission, Tristate allow, Tristate defaultTo)
     {
-        Permission permission = perm.get();
         if (player != null && permission != null && permission.check(player))
         {
             event.setCancelled(false);
             return Tristate.TRUE;
         }
-        Tristate allow = UNDEFINED;
-        for (Region region : regionsAt)
+        if (allow == FALSE)
         {
-            allow = allow.and(func.apply(region.getSettings()));
-            if (allow != UNDEFINED)
-            {
-                if (allow == FALSE)
-                {
-                    event.setCancelled(true);
-                    return FALSE;
-                }
-                break;
-            }
+            event.setCancelled(true);
+            return FALSE;
         }
         if (allow == TRUE)
         {
             event.setCancelled(false);
+            return TRUE;
         }
-        if (allow == UNDEFINED)
-        {
-            return defaultTo;
-        }
-        return allow;
+        return defaultTo;
     }
 
 
@@ -105,22 +101,15 @@ public class SettingsListener extends PermissionContainer
         {
             return;
         }
-        List<Region> regionsAt = manager.getRegionsAt(player.serverLocation());
-        if (checkSetting(event, player, regionsAt, () -> command, s -> {
-
-            Tristate value = UNDEFINED;
-            // TODO subcommands?
-            // TODO register commands as aliascommand
-            for (String alias : mapping.allAliases())
-            {
-                value = value.and(s.blockedCommands.getOrDefault(alias.toLowerCase(), UNDEFINED));
-                if (value != UNDEFINED)
-                {
-                    break;
-                }
-            }
-            return value;
-        }, UNDEFINED) == FALSE)
+        CompiledSettings settings = manager.getRegionsAt(player.serverLocation()).getSettings();
+        // TODO subcommands?
+        // TODO register commands as aliascommand
+        List<String> aliases = new ArrayList<>();
+        for (String alias : mapping.allAliases())
+        {
+            aliases.add(alias.toLowerCase());
+        }
+        if (checkSetting(event, player, command, settings.blockedCommand(aliases), UNDEFINED) == FALSE)
         {
             i18n.send(ChatType.ACTION_BAR, player, CRITICAL, "You are not allowed to execute this command here!");
         }
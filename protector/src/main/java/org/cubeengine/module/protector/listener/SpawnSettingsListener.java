@@ -17,7 +17,6 @@
  */
 package org.cubeengine.module.protector.listener;
 
-import java.util.List;
 import java.util.Optional;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -29,7 +28,7 @@ import org.cubeengine.libcube.service.permission.PermissionContainer;
 import org.cubeengine.libcube.service.permission.PermissionManager;
 import org.cubeengine.module.protector.Protector;
 import org.cubeengine.module.protector.RegionManager;
-import org.cubeengine.module.protector.region.Region;
+import org.cubeengine.module.protector.region.CompiledSettings;
 import org.spongepowered.api.ResourceKey;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.EntityType;
@@ -81,7 +80,7 @@ public class SpawnSettingsListener extends PermissionContainer
         {
             ServerLocation loc = entity.serverLocation();
             EntityType<?> type = entity.type();
-            List<Region> regionsAt = manager.getRegionsAt(loc);
+            CompiledSettings settings = manager.getRegionsAt(loc).getSettings();
             Cause cause = event.cause();
             Optional<ServerPlayer> player = cause.first(ServerPlayer.class);
             if (event.cause().context().get(EventContextKeys.SPAWN_TYPE).map(t -> t.equals(SpawnTypes.PLUGIN.get())).orElse(false))
@@ -91,13 +90,13 @@ public class SpawnSettingsListener extends PermissionContainer
                     final ResourceKey entityTypeKey = type.key(RegistryTypes.ENTITY_TYPE);
                     Permission usePerm = pm.register(
                         SpawnSettingsListener.class, entityTypeKey.value(), "Allows spawning a " + PlainTextComponentSerializer.plainText().serialize(type.asComponent()), spawnEntityPlayerPerm);
-                    if (checkSetting(event, player.get(), regionsAt, () -> usePerm, (s) -> s.spawn.player.getOrDefault(type, UNDEFINED), UNDEFINED) == FALSE)
+                    if (checkSetting(event, player.get(), usePerm, settings.spawnPlayer(type), UNDEFINED) == FALSE)
                     {
                         i18n.send(ChatType.ACTION_BAR, player.get(), CRITICAL, "You are not allowed spawn this here.");
                         return;
                     }
                 }
-                else if (checkSetting(event, null, regionsAt, () -> null, (s) -> s.spawn.plugin.getOrDefault(type, UNDEFINED), UNDEFINED) == FALSE)
+                else if (checkSetting(event, null, null, settings.spawnPlugin(type), UNDEFINED) == FALSE)
                 {
                     return;
                 }
@@ -107,13 +106,13 @@ public class SpawnSettingsListener extends PermissionContainer
                 final ResourceKey entityTypeKey = type.key(RegistryTypes.ENTITY_TYPE);
                 Permission usePerm = pm.register(
                         SpawnSettingsListener.class, entityTypeKey.value(), "Allows spawning a " + PlainTextComponentSerializer.plainText().serialize(type.asComponent()), spawnEntityPlayerPerm);
-                if (checkSetting(event, player.get(), regionsAt, () -> usePerm, (s) -> s.spawn.player.getOrDefault(type, UNDEFINED), UNDEFINED) == FALSE)
+                if (checkSetting(event, player.get(), usePerm, settings.spawnPlayer(type), UNDEFINED) == FALSE)
                 {
                     i18n.send(ChatType.ACTION_BAR, player.get(), CRITICAL, "You are not allowed spawn this here.");
                     return;
                 }
             }
-            else if (checkSetting(event, null, regionsAt, () -> null, (s) -> s.spawn.naturally.getOrDefault(type, UNDEFINED), UNDEFINED) == FALSE)
+            else if (checkSetting(event, null, null, settings.spawnNaturally(type), UNDEFINED) == FALSE)
             {
                 entity.remove();
                 return; // natural
@@ -0,0 +1,204 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.region;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.cubeengine.module.protector.listener.MoveSettingsListener.MoveType;
+import org.cubeengine.module.protector.region.RegionConfig.Settings;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.item.ItemType;
+import org.spongepowered.api.util.Tristate;
+
+import static org.spongepowered.api.util.Tristate.UNDEFINED;
+
+/**
+ * The effective settings of a {@link RegionSet}.
+ * <p>For every setting the value of the region with the highest priority defining it is used.
+ */
+public final class CompiledSettings
+{
+    public enum Setting
+    {
+        BUILD(s -> s.build),
+        USE_ALL_BLOCK(s -> s.use.all.block),
+        USE_ALL_ITEM(s -> s.use.all.item),
+        USE_ALL_CONTAINER(s -> s.use.all.container),
+        USE_ALL_OPEN(s -> s.use.all.open),
+        USE_ALL_REDSTONE(s -> s.use.all.redstone),
+        USE_ALL_ENTITY(s -> s.use.all.entity),
+        BLOCKDAMAGE_ALL_EXPLOSION(s -> s.blockDamage.allExplosion),
+        BLOCKDAMAGE_PLAYER_EXPLOSION(s -> s.blockDamage.playerExplosion),
+        BLOCKDAMAGE_MONSTER(s -> s.blockDamage.monster),
+        BLOCKDAMAGE_LIGHTNING(s -> s.blockDamage.lightning),
+        FLUIDFLOW_ALL(s -> s.fluidFlow.all),
+        FLUIDFLOW_MIX(s -> s.fluidFlow.mix),
+        DEAD_CIRCUIT(s -> s.deadCircuit),
+        ENTITYDAMAGE_ALL(s -> s.entityDamage.all),
+        ENTITYDAMAGE_BY_LIVING(s -> s.entityDamage.byLiving),
+        PLAYERDAMAGE_ALL(s -> s.playerDamage.all),
+        PLAYERDAMAGE_BY_LIVING(s -> s.playerDamage.byLiving),
+        PLAYERDAMAGE_PVP(s -> s.playerDamage.pvp),
+        PLAYERDAMAGE_AI_TARGETING(s -> s.playerDamage.aiTargeting);
+
+        private final Function<Settings, Tristate> getter;
+
+        Setting(Function<Settings, Tristate> getter)
+        {
+            this.getter = getter;
+        }
+    }
+
+    private final Tristate[] values = new Tristate[Setting.values().length];
+    private final Tristate[] move = new Tristate[MoveType.values().length];
+
+    private final Map<BlockType, Tristate> useBlock = new HashMap<>();
+    private final Map<ItemType, Tristate> useItem = new HashMap<>();
+    private final Map<BlockType, Tristate> blockDamageBlock = new HashMap<>();
+    private final Map<EntityType, Tristate> spawnNaturally = new HashMap<>();
+    private final Map<EntityType, Tristate> spawnPlayer = new HashMap<>();
+    private final Map<EntityType, Tristate> spawnPlugin = new HashMap<>();
+    private final Map<EntityType, Tristate> entityDamageByEntity = new HashMap<>();
+    private final Map<String, Tristate> blockedCommands = new HashMap<>();
+    private final Map<String, Integer> blockedCommandRank = new HashMap<>();
+
+    /**
+     * @param regions the regions sorted by priority
+     */
+    CompiledSettings(List<Region> regions)
+    {
+        Arrays.fill(this.values, UNDEFINED);
+        Arrays.fill(this.move, UNDEFINED);
+        for (int rank = 0; rank < regions.size(); rank++)
+        {
+            Settings settings = regions.get(rank).getSettings();
+            for (Setting setting : Setting.values())
+            {
+                if (this.values[setting.ordinal()] == UNDEFINED)
+                {
+                    this.values[setting.ordinal()] = setting.getter.apply(settings);
+                }
+            }
+            for (Map.Entry<MoveType, Tristate> entry : settings.move.entrySet())
+            {
+                if (this.move[entry.getKey().ordinal()] == UNDEFINED)
+                {
+                    this.move[entry.getKey().ordinal()] = entry.getValue();
+                }
+            }
+            merge(this.useBlock, settings.use.block);
+            merge(this.useItem, settings.use.item);
+            merge(this.blockDamageBlock, settings.blockDamage.block);
+            merge(this.spawnNaturally, settings.spawn.naturally);
+            merge(this.spawnPlayer, settings.spawn.player);
+            merge(this.spawnPlugin, settings.spawn.plugin);
+            merge(this.entityDamageByEntity, settings.entityDamage.byEntity);
+            for (Map.Entry<String, Tristate> entry : settings.blockedCommands.entrySet())
+            {
+                if (entry.getValue() != UNDEFINED && !this.blockedCommands.containsKey(entry.getKey()))
+                {
+                    this.blockedCommands.put(entry.getKey(), entry.getValue());
+                    this.blockedCommandRank.put(entry.getKey(), rank);
+                }
+            }
+        }
+    }
+
+    private static <K> void merge(Map<K, Tristate> target, Map<K, Tristate> source)
+    {
+        for (Map.Entry<K, Tristate> entry : source.entrySet())
+        {
+            if (entry.getValue() != UNDEFINED)
+            {
+                target.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public Tristate get(Setting setting)
+    {
+        return this.values[setting.ordinal()];
+    }
+
+    public Tristate move(MoveType type)
+    {
+        return this.move[type.ordinal()];
+    }
+
+    public Tristate useBlock(BlockType type)
+    {
+        return this.useBlock.getOrDefault(type, UNDEFINED);
+    }
+
+    public Tristate useItem(ItemType type)
+    {
+        return this.useItem.getOrDefault(type, UNDEFINED);
+    }
+
+    public Tristate blockDamage(BlockType type)
+    {
+        return this.blockDamageBlock.getOrDefault(type, UNDEFINED);
+    }
+
+    public Tristate spawnNaturally(EntityType<?> type)
+    {
+        return this.spawnNaturally.getOrDefault(type, UNDEFINED);
+    }
+
+    public Tristate spawnPlayer(EntityType<?> type)
+    {
+        return this.spawnPlayer.getOrDefault(type, UNDEFINED);
+    }
+
+    public Tristate spawnPlugin(EntityType<?> type)
+    {
+        return this.spawnPlugin.getOrDefault(type, UNDEFINED);
+    }
+
+    public Tristate entityDamage(EntityType<?> type)
+    {
+        return this.entityDamageByEntity.getOrDefault(type, UNDEFINED);
+    }
+
+    /**
+     * Returns the setting for a command. The alias defined by the region with the highest priority wins.
+     *
+     * @param aliases the lowercase aliases of the command
+     *
+     * @return the setting
+     */
+    public Tristate blockedCommand(Iterable<String> aliases)
+    {
+        Tristate value = UNDEFINED;
+        int best = Integer.MAX_VALUE;
+        for (String alias : aliases)
+        {
+            Integer rank = this.blockedCommandRank.get(alias);
+            if (rank != null && rank < best)
+            {
+                best = rank;
+                value = this.blockedCommands.get(alias);
+            }
+        }
+        return value;
+    }
+}
@@ -76,6 +76,21 @@ public class Region
         return this.zone.shape.getBoundingCuboid();
     }
 
+    public ZoneConfig getZone()
+    {
+        return zone;
+    }
+
+    public void setZone(ZoneConfig zone)
+    {
+        this.zone = zone;
+    }
+
+    public boolean isCuboid()
+    {
+        return this.zone != null && this.zone.shape instanceof Cuboid;
+    }
+
     public int getPriority() {
         return config.priority;
     }
@@ -83,7 +98,7 @@ public class Region
     public void save()
     {
         this.config.save();
-        this.manager.markDirty();
+        this.manager.markDirty(this);
     }
 
     public String getName()
@@ -115,13 +130,16 @@ public class Region
         {
             if (this.config.world == null)
             {
-                return new Context("region", "global");
+                this.context = new Context("region", "global");
+            }
+            else if (this.config.name == null)
+            {
+                this.context = new Context("region", this.config.world.getName().toLowerCase());
             }
-            if (this.config.name == null)
+            else
             {
-                return new Context("region", this.config.world.getName().toLowerCase());
+                this.context = new Context("region", this.config.world.getName().toLowerCase() + "." + this.config.name.toLowerCase());
             }
-            this.context = new Context("region", this.config.world.getName().toLowerCase() + "." + this.config.name.toLowerCase());
         }
         return this.context;
     }
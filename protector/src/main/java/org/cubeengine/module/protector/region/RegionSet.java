@@ -0,0 +1,243 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.protector.region;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import org.cubeengine.module.protector.listener.MoveSettingsListener.MoveType;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.util.Tristate;
+
+/**
+ * An immutable list of regions sorted by priority (highest first).
+ * <p>Instances are interned by the {@link org.cubeengine.module.protector.RegionManager}
+ * so equal sets at different positions are the same object.
+ */
+public final class RegionSet extends AbstractList<Region> implements RandomAccess
+{
+    private static final Comparator<Region> BY_PRIORITY = Comparator.comparingInt(Region::getPriority).reversed();
+
+    private final Region[] regions;
+    private final int hash;
+    private final int moveMask;
+    private List<Context> contexts;
+    private CompiledSettings settings;
+    private volatile Transition transition;
+
+    public RegionSet(Collection<Region> regions)
+    {
+        this.regions = regions.toArray(new Region[0]);
+        Arrays.sort(this.regions, BY_PRIORITY);
+        this.hash = super.hashCode();
+        int mask = 0;
+        for (Region region : this.regions)
+        {
+            mask |= moveMask(region);
+        }
+        this.moveMask = mask;
+    }
+
+    /**
+     * Returns a bitmask of the {@link MoveType}s defined in given region
+     *
+     * @param region the region
+     *
+     * @return the bitmask indexed by {@link MoveType#ordinal()}
+     */
+    public static int moveMask(Region region)
+    {
+        int mask = 0;
+        for (Map.Entry<MoveType, Tristate> entry : region.getSettings().move.entrySet())
+        {
+            if (entry.getValue() != Tristate.UNDEFINED)
+            {
+                mask |= 1 << entry.getKey().ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns whether any region in this set defines a setting for given MoveType
+     */
+    public boolean hasMoveSetting(MoveType type)
+    {
+        return (this.moveMask & (1 << type.ordinal())) != 0;
+    }
+
+    public int getMoveMask()
+    {
+        return moveMask;
+    }
+
+    /**
+     * Returns the permission contexts of the regions in this set
+     */
+    public List<Context> getContexts()
+    {
+        if (this.contexts == null)
+        {
+            List<Context> list = new ArrayList<>(this.regions.length);
+            for (Region region : this.regions)
+            {
+                list.add(region.getContext());
+            }
+            this.contexts = Collections.unmodifiableList(list);
+        }
+        return this.contexts;
+    }
+
+    /**
+     * Returns the effective settings of the regions in this set
+     */
+    public CompiledSettings getSettings()
+    {
+        if (this.settings == null)
+        {
+            this.settings = new CompiledSettings(this);
+        }
+        return this.settings;
+    }
+
+    /**
+     * Returns the regions entered and left when moving from this set to another.
+     * <p>The last transition is kept as players usually cross the same boundary again and again.
+     *
+     * @param to the regions after moving
+     *
+     * @return the transition
+     */
+    public Transition transitionTo(RegionSet to)
+    {
+        Transition transition = this.transition;
+        if (transition == null || transition.to != to)
+        {
+            transition = new Transition(this, to);
+            this.transition = transition;
+        }
+        return transition;
+    }
+
+    @Override
+    public Region get(int index)
+    {
+        return regions[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return regions.length;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        for (Region region : regions)
+        {
+            if (region == o)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o instanceof RegionSet)
+        {
+            RegionSet other = (RegionSet) o;
+            if (other.hash != this.hash || other.regions.length != this.regions.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < regions.length; i++)
+            {
+                if (regions[i] != other.regions[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * The regions entered and left when moving between two region sets
+     */
+    public static final class Transition
+    {
+        private final RegionSet to;
+        private final List<Region> entered;
+        private final List<Region> left;
+
+        private Transition(RegionSet from, RegionSet to)
+        {
+            this.to = to;
+            this.entered = difference(to, from);
+            this.left = difference(from, to);
+        }
+
+        private static List<Region> difference(RegionSet regions, RegionSet without)
+        {
+            if (regions == without)
+            {
+                return Collections.emptyList();
+            }
+            List<Region> result = new ArrayList<>();
+            for (Region region : regions)
+            {
+                if (!without.contains(region))
+                {
+                    result.add(region);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        public List<Region> getEntered()
+        {
+            return entered;
+        }
+
+        public List<Region> getLeft()
+        {
+            return left;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.cubeengine.libcube.service.filesystem.ConfigLoader;
+import org.cubeengine.libcube.service.filesystem.FileManager;
+import org.cubeengine.module.roles.RolesConfig;
+import org.cubeengine.module.roles.service.RolesPermissionService;
+import org.cubeengine.module.roles.service.subject.FileSubject;
+import org.cubeengine.reflect.Reflector;
+import org.spongepowered.api.Game;
+import org.spongepowered.api.Sponge;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A {@link RolesPermissionService} running outside of a server.
+ * <p>Roles are stored in a temporary directory and no server is available, so contexts are always calculated off the main thread.
+ */
+final class BenchmarkEnvironment implements AutoCloseable
+{
+    private final Path directory;
+    private final RolesPermissionService service;
+
+    BenchmarkEnvironment() throws IOException
+    {
+        installGame();
+        this.directory = Files.createTempDirectory("roles-benchmark");
+
+        Reflector reflector = new Reflector();
+        FileManager fm = mock(FileManager.class);
+        when(fm.getModulePath(any())).thenReturn(this.directory);
+        ConfigLoader cl = mock(ConfigLoader.class);
+        when(cl.loadConfig(RolesConfig.class)).thenReturn(reflector.create(RolesConfig.class));
+
+        this.service = new RolesPermissionService(fm, reflector, LogManager.getLogger("roles-benchmark"), cl);
+    }
+
+    private static void installGame()
+    {
+        try
+        {
+            Field game = Sponge.class.getDeclaredField("game");
+            game.setAccessible(true);
+            if (game.get(null) == null)
+            {
+                game.set(null, mock(Game.class));
+            }
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    RolesPermissionService getService()
+    {
+        return service;
+    }
+
+    /**
+     * Loads a role. Its data is only set in the transient data so nothing is written to disk.
+     *
+     * @param name the name of the role
+     *
+     * @return the role
+     */
+    FileSubject role(String name)
+    {
+        return (FileSubject) this.service.groupSubjects().loadSubject(name).join();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.service.getWriter().shutdown();
+        try (Stream<Path> files = Files.walk(this.directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.module.roles.service.ContextSet;
+import org.cubeengine.module.roles.service.RolesPermissionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.event.Cause;
+import org.spongepowered.api.event.EventContext;
+import org.spongepowered.api.service.context.Context;
+
+/**
+ * Calculates the contexts of a cause with a number of registered calculators each adding {@link RoleGraph#QUERY_CONTEXTS} contexts.
+ * <p>No server is running so the per tick cache of the main thread is never used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextsBenchmark
+{
+    @Param({"1", "4", "16"})
+    private int calculators;
+
+    private BenchmarkEnvironment env;
+    private RolesPermissionService service;
+    private Cause cause;
+    private Set<Context> contexts;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.env = new BenchmarkEnvironment();
+        this.service = env.getService();
+        for (int i = 0; i < calculators; i++)
+        {
+            List<Context> added = new ArrayList<>();
+            for (int j = 0; j < RoleGraph.QUERY_CONTEXTS; j++)
+            {
+                added.add(new Context("calculator" + i, "context" + j));
+            }
+            this.service.registerContextCalculator((cause, accumulator) -> added.forEach(accumulator));
+        }
+        this.cause = Cause.of(EventContext.empty(), this);
+        this.contexts = new HashSet<>(service.contextsFor(cause));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.env.close();
+    }
+
+    @Benchmark
+    public Set<Context> contextsFor()
+    {
+        return service.contextsFor(cause);
+    }
+
+    /**
+     * Looks up the canonical instance of an equal set
+     */
+    @Benchmark
+    public ContextSet intern()
+    {
+        return service.intern(contexts);
+    }
+
+    @Benchmark
+    public ContextSet copy()
+    {
+        return ContextSet.of(Collections.unmodifiableSet(contexts));
+    }
+}
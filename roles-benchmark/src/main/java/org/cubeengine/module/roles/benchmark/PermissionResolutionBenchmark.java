@@ -0,0 +1,116 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.module.roles.RolesUtil;
+import org.cubeengine.module.roles.RolesUtil.FoundOption;
+import org.cubeengine.module.roles.RolesUtil.FoundPermission;
+import org.cubeengine.module.roles.service.RolesPermissionService;
+import org.cubeengine.module.roles.service.subject.FileSubject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.service.context.Context;
+
+/**
+ * Resolves permissions and options of a subject in a {@link RoleGraph}.
+ * <p>The "Changed" variants mark the service as changed first so the flattened permissions and options are rebuilt
+ * as happens after any subject data was edited.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionResolutionBenchmark
+{
+    /**
+     * Checked permissions are usually children of the permission set in the role
+     */
+    private static final String PERMISSION = RoleGraph.TARGET_PERMISSION + ".use";
+
+    @Param
+    private RoleGraph graph;
+
+    private BenchmarkEnvironment env;
+    private RolesPermissionService service;
+    private FileSubject subject;
+    private Set<Context> contexts;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.env = new BenchmarkEnvironment();
+        this.service = env.getService();
+        this.subject = graph.build(env);
+        this.contexts = service.intern(RoleGraph.queryContexts());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.env.close();
+    }
+
+    @Benchmark
+    public FoundPermission findPermission()
+    {
+        return RolesUtil.findPermission(service, subject, PERMISSION, contexts);
+    }
+
+    @Benchmark
+    public FoundPermission findPermissionChanged()
+    {
+        service.markChanged();
+        return RolesUtil.findPermission(service, subject, PERMISSION, contexts);
+    }
+
+    @Benchmark
+    public Optional<FoundOption> getOption()
+    {
+        return RolesUtil.getOption(service, subject, RoleGraph.TARGET_OPTION, contexts, true);
+    }
+
+    @Benchmark
+    public Optional<FoundOption> getOptionChanged()
+    {
+        service.markChanged();
+        return RolesUtil.getOption(service, subject, RoleGraph.TARGET_OPTION, contexts, true);
+    }
+
+    @Benchmark
+    public Map<String, Boolean> subjectDataPermissions()
+    {
+        return subject.transientSubjectData().permissions(contexts);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.cubeengine.module.roles.service.subject.PermissionTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finds the closest implicit parent of a permission in a {@link PermissionTrie}
+ * compared to looking up each implicit parent in a {@link HashMap}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionTrieBenchmark
+{
+    @Param({"100", "10000"})
+    private int permissions;
+
+    private final PermissionTrie<Boolean> trie = new PermissionTrie<>();
+    private final Map<String, Boolean> map = new HashMap<>();
+
+    private String permission;
+
+    @Setup
+    public void setup()
+    {
+        for (int i = 0; i < permissions; i++)
+        {
+            String perm = "plugin" + (i % 32) + ".command" + (i % 256) + ".node" + i;
+            trie.putIfAbsent(perm, true);
+            map.put(perm, true);
+        }
+        trie.putIfAbsent("plugin1.command1", false);
+        map.put("plugin1.command1", false);
+        this.permission = "plugin1.command1.other.child";
+    }
+
+    @Benchmark
+    public Boolean trie()
+    {
+        return trie.find(permission, (found, deeper) -> deeper);
+    }
+
+    @Benchmark
+    public Boolean map()
+    {
+        String perm = permission;
+        while (true)
+        {
+            Boolean value = map.get(perm);
+            if (value != null)
+            {
+                return value;
+            }
+            int idx = perm.lastIndexOf('.');
+            if (idx == -1)
+            {
+                return null;
+            }
+            perm = perm.substring(0, idx);
+        }
+    }
+}
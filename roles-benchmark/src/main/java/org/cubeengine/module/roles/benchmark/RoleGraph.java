@@ -0,0 +1,156 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.benchmark;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.cubeengine.module.roles.service.subject.FileSubject;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.util.Tristate;
+
+/**
+ * Synthetic role graphs. In every graph {@link #TARGET_PERMISSION} and {@link #TARGET_OPTION}
+ * are only set in the role resolved last so resolving them visits the whole graph.
+ */
+public enum RoleGraph
+{
+    /**
+     * A chain of roles each inheriting from the next one
+     */
+    DEEP
+    {
+        @Override
+        FileSubject build(BenchmarkEnvironment env)
+        {
+            FileSubject subject = role(env, "deep", 0);
+            FileSubject child = subject;
+            for (int i = 1; i < ROLES; i++)
+            {
+                FileSubject parent = role(env, "deep", i);
+                addParent(child, parent);
+                child = parent;
+            }
+            setTarget(child, GLOBAL);
+            return subject;
+        }
+    },
+    /**
+     * A role inheriting from many roles directly
+     */
+    WIDE
+    {
+        @Override
+        FileSubject build(BenchmarkEnvironment env)
+        {
+            FileSubject subject = role(env, "wide", 0);
+            FileSubject parent = null;
+            for (int i = 1; i < ROLES; i++)
+            {
+                parent = role(env, "wide", i);
+                addParent(subject, parent);
+            }
+            // all parents have the same priority so they keep the order they were added in
+            setTarget(parent, GLOBAL);
+            return subject;
+        }
+    },
+    /**
+     * A single role with data set in many contexts
+     */
+    CONTEXTS
+    {
+        @Override
+        FileSubject build(BenchmarkEnvironment env)
+        {
+            FileSubject subject = env.role("contexts");
+            for (int i = 0; i < CONTEXT_COUNT; i++)
+            {
+                Set<Context> contexts = Collections.singleton(context(i));
+                for (int j = 0; j < PERMISSIONS; j++)
+                {
+                    subject.transientSubjectData().setPermission(contexts, "bench.contexts." + i + "." + j, Tristate.TRUE).join();
+                }
+                subject.transientSubjectData().setOption(contexts, "option" + i, "value").join();
+            }
+            setTarget(subject, Collections.singleton(context(QUERY_CONTEXTS - 1)));
+            return subject;
+        }
+    };
+
+    public static final String TARGET_PERMISSION = "bench.target";
+    public static final String TARGET_OPTION = "prefix";
+
+    static final int ROLES = 32;
+    static final int PERMISSIONS = 16;
+    static final int CONTEXT_COUNT = 64;
+    static final int QUERY_CONTEXTS = 8;
+
+    private static final Set<Context> GLOBAL = Collections.emptySet();
+
+    /**
+     * Builds the graph
+     *
+     * @param env the environment
+     *
+     * @return the subject to query
+     */
+    abstract FileSubject build(BenchmarkEnvironment env);
+
+    /**
+     * Returns the contexts permissions are queried in
+     */
+    static Set<Context> queryContexts()
+    {
+        Set<Context> contexts = new HashSet<>();
+        for (int i = 0; i < QUERY_CONTEXTS; i++)
+        {
+            contexts.add(context(i));
+        }
+        return contexts;
+    }
+
+    static Context context(int i)
+    {
+        return new Context("bench", "context" + i);
+    }
+
+    private static FileSubject role(BenchmarkEnvironment env, String graph, int i)
+    {
+        String name = String.format("%s%02d", graph, i);
+        FileSubject role = env.role(name);
+        for (int j = 0; j < PERMISSIONS; j++)
+        {
+            role.transientSubjectData().setPermission(GLOBAL, "bench." + name + "." + j, Tristate.TRUE).join();
+        }
+        role.transientSubjectData().setOption(GLOBAL, "option" + i, "value").join();
+        return role;
+    }
+
+    private static void addParent(Subject child, Subject parent)
+    {
+        child.transientSubjectData().addParent(GLOBAL, parent.asSubjectReference()).join();
+    }
+
+    private static void setTarget(Subject subject, Set<Context> contexts)
+    {
+        subject.transientSubjectData().setPermission(contexts, TARGET_PERMISSION, Tristate.TRUE).join();
+        subject.transientSubjectData().setOption(contexts, TARGET_OPTION, "[bench]").join();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import org.cubeengine.module.roles.service.ContextSet;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.permission.Subject;
+
+/**
+ * A bounded cache of the resolved parents of subjects per context set.
+ * <p>The least recently used subjects are evicted once more than {@link #maxSubjects} subjects are cached.
+ * <p>Parents are loaded outside of the lock. A loaded value is only stored if the subject was not invalidated
+ * or evicted meanwhile, so a concurrent change cannot leave outdated parents behind.
+ */
+final class ParentCache
+{
+    private static final int MAX_CONTEXT_SETS = 64;
+
+    private final int maxSubjects;
+    private final Map<Subject, Entry> entries;
+
+    ParentCache(int maxSubjects)
+    {
+        this.maxSubjects = maxSubjects;
+        this.entries = new LinkedHashMap<Subject, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Subject, Entry> eldest)
+            {
+                return size() > ParentCache.this.maxSubjects;
+            }
+        };
+    }
+
+    List<Subject> get(Subject subject, Set<Context> contexts, BiFunction<Subject, Set<Context>, List<Subject>> loader)
+    {
+        Entry entry;
+        synchronized (this)
+        {
+            entry = this.entries.computeIfAbsent(subject, s -> new Entry());
+            List<Subject> parents = entry.parents.get(contexts);
+            if (parents != null)
+            {
+                return parents;
+            }
+        }
+        List<Subject> parents = loader.apply(subject, contexts);
+        synchronized (this)
+        {
+            if (this.entries.get(subject) == entry)
+            {
+                if (entry.parents.size() >= MAX_CONTEXT_SETS)
+                {
+                    entry.parents.clear();
+                }
+                entry.parents.put(ContextSet.of(contexts), parents);
+            }
+        }
+        return parents;
+    }
+
+    synchronized void invalidate(Subject subject)
+    {
+        this.entries.remove(subject);
+    }
+
+    synchronized void clear()
+    {
+        this.entries.clear();
+    }
+
+    synchronized int size()
+    {
+        return this.entries.size();
+    }
+
+    private static final class Entry
+    {
+        private final Map<Set<Context>, List<Subject>> parents = new HashMap<>();
+    }
+}
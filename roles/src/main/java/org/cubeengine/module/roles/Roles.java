@@ -28,6 +28,7 @@ import org.cubeengine.libcube.service.command.annotation.ModuleCommand;
 import org.cubeengine.libcube.service.filesystem.FileManager;
 import org.cubeengine.libcube.service.i18n.I18n;
 import org.cubeengine.libcube.service.i18n.formatter.MessageType;
+import org.cubeengine.libcube.service.task.TaskManager;
 import org.cubeengine.libcube.util.ContextUtil;
 import org.cubeengine.module.roles.commands.RoleCommands;
 import org.cubeengine.module.roles.commands.formatter.RoleFormatter;
@@ -41,9 +42,11 @@ import org.spongepowered.api.event.lifecycle.ProvideServiceEvent;
 import org.spongepowered.api.event.lifecycle.RegisterDataEvent;
 import org.spongepowered.api.event.lifecycle.StartedEngineEvent;
 import org.spongepowered.api.event.lifecycle.StartingEngineEvent;
+import org.spongepowered.api.event.lifecycle.StoppingEngineEvent;
 import org.spongepowered.api.event.network.ServerSideConnectionEvent;
 import org.spongepowered.api.service.context.ContextService;
 import org.spongepowered.api.service.permission.PermissionService;
+import org.spongepowered.api.util.Ticks;
 import org.spongepowered.api.util.Tristate;
 
 /*
@@ -61,6 +64,7 @@ public class Roles
     @Inject private ModuleManager mm;
     @Inject private FileManager fm;
     @Inject private RolesPermissionService service;
+    @Inject private TaskManager tm;
     @ModuleCommand private RoleCommands roleCommands;
 
     private boolean firstRun;
@@ -99,6 +103,13 @@ public class Roles
     public void onEnable(StartedEngineEvent<Server> event)
     {
         i18n.getCompositor().registerFormatter(new RoleFormatter());
+        tm.runTimer(service::unloadSubjects, Ticks.of(1200), Ticks.of(1200));
+    }
+
+    @Listener
+    public void onStopping(StoppingEngineEvent<Server> event)
+    {
+        service.getWriter().shutdown();
     }
 
     @Listener
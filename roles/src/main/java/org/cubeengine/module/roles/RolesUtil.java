@@ -18,8 +18,9 @@
 package org.cubeengine.module.roles;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,6 +31,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.cubeengine.libcube.service.i18n.I18n;
+import org.cubeengine.module.roles.service.subject.BaseSubject;
 import org.cubeengine.module.roles.service.subject.FileSubject;
 import org.spongepowered.api.command.CommandCause;
 import org.spongepowered.api.service.context.Context;
@@ -45,16 +47,41 @@ public class RolesUtil
 {
     public static boolean debug = false;
     public static final Set<String> allPermissions = new HashSet<>();
-    private static Map<String, Map<String, Map<Set<Context>, List<Subject>>>> cache = new HashMap<>();
+    private static final int MAX_CACHED_SUBJECTS = 1 << 12;
+    private static final ParentCache parentCache = new ParentCache(MAX_CACHED_SUBJECTS);
 
     public static void invalidateCache()
     {
-        cache.clear();
+        parentCache.clear();
+    }
+
+    /**
+     * Invalidates the cached parents of a subject
+     *
+     * @param subject the subject
+     */
+    public static void invalidateCache(Subject subject)
+    {
+        parentCache.invalidate(subject);
     }
 
     public static FoundPermission findPermission(PermissionService service, Subject subject, String permission, Set<Context> contexts)
     {
-        FoundPermission found = findPermission(service, subject, permission, contexts, new HashSet<>());
+        FoundPermission found;
+        if (subject instanceof BaseSubject)
+        {
+            found = ((BaseSubject<?>) subject).permissionSnapshot(contexts).find(permission);
+        }
+        else
+        {
+            found = findPermission(service, subject, permission, contexts, new HashSet<>());
+        }
+        debugPermission(subject, permission, found);
+        return found;
+    }
+
+    public static void debugPermission(Subject subject, String permission, FoundPermission found)
+    {
         if (debug)
         {
             final String name =  subject.containingCollection().identifier() + ":" + subject.friendlyIdentifier().orElse(subject.identifier());
@@ -67,7 +94,6 @@ public class RolesUtil
                 System.out.print("[PermCheck] " + name + " has " + permission + " set to " + found.value + " as " + found.permission + " in " + found.subject.identifier() + "\n");
             }
         }
-        return found;
     }
 
     public static FoundPermission findPermission(PermissionService service, Subject subject, String permission, Set<Context> contexts, Set<Subject> checked)
@@ -126,10 +152,7 @@ public class RolesUtil
             }
 
             // Attempt to find permission in parents
-            List<Subject> list = new ArrayList<>(getParents(contexts, subject));
-            list.sort(FileSubject::compare);
-
-            for (Subject parentSubject : list)
+            for (Subject parentSubject : getParents(contexts, subject))
             {
                 if (checked.contains(parentSubject))
                 {
@@ -147,16 +170,61 @@ public class RolesUtil
         return null;
     }
 
+    /**
+     * Returns the subjects in the order {@link #findPermission} visits them:
+     * the subject, then each parent with its parents and defaults ordered by priority and finally the defaults of the subject.
+     * <p>Every subject is contained once.
+     *
+     * @param subject the subject
+     * @param contexts the contexts
+     *
+     * @return the subjects in resolution order
+     */
+    public static List<Subject> getInheritanceOrder(Subject subject, Set<Context> contexts)
+    {
+        List<Subject> order = new ArrayList<>();
+        collectInheritanceOrder(subject, contexts, new HashSet<>(), order);
+        return order;
+    }
+
+    private static void collectInheritanceOrder(Subject subject, Set<Context> contexts, Set<Subject> checked, List<Subject> order)
+    {
+        checked.add(subject);
+        if (!order.contains(subject))
+        {
+            order.add(subject);
+        }
+
+        for (Subject parentSubject : getParents(contexts, subject))
+        {
+            if (checked.add(parentSubject))
+            {
+                collectInheritanceOrder(parentSubject, contexts, checked, order);
+            }
+        }
+
+        Subject defaults = subject.containingCollection().defaults();
+        if (defaults != subject)
+        {
+            collectInheritanceOrder(defaults, contexts, checked, order);
+        }
+    }
+
+    /**
+     * Returns the resolved parents of a subject ordered by priority
+     */
     private static List<Subject> getParents(Set<Context> contexts, Subject subject)
     {
-        Map<String, Map<Set<Context>, List<Subject>>> collectionMap = cache.computeIfAbsent(subject.containingCollection().identifier(), k -> new HashMap<>());
-        Map<Set<Context>, List<Subject>> subjectMap = collectionMap.computeIfAbsent(subject.identifier(), k -> new HashMap<>());
-        return subjectMap.computeIfAbsent(contexts, c -> {
-            List<Subject> list = new ArrayList<>();
-            list.addAll(subject.subjectData().parents(contexts).stream().map(sr -> sr.resolve().join()).collect(Collectors.toList()));
-            list.addAll(subject.transientSubjectData().parents(contexts).stream().map(sr -> sr.resolve().join()).collect(Collectors.toList()));
-            return list;
-        });
+        return parentCache.get(subject, contexts, RolesUtil::loadParents);
+    }
+
+    private static List<Subject> loadParents(Subject subject, Set<Context> contexts)
+    {
+        List<Subject> list = new ArrayList<>();
+        list.addAll(subject.subjectData().parents(contexts).stream().map(sr -> sr.resolve().join()).collect(Collectors.toList()));
+        list.addAll(subject.transientSubjectData().parents(contexts).stream().map(sr -> sr.resolve().join()).collect(Collectors.toList()));
+        list.sort(FileSubject::compare);
+        return Collections.unmodifiableList(list);
     }
 
     public static List<String> getImplicitParents(String permission)
@@ -188,39 +256,64 @@ public class RolesUtil
 
     public static Optional<FoundOption> getOption(PermissionService service, Subject subject, String key, Set<Context> contexts, boolean recurseDefault)
     {
-        Optional<FoundOption> option = getOption(service, subject, subject.transientSubjectData(), key, contexts);
-        if (!option.isPresent())
+        if (recurseDefault && subject instanceof BaseSubject)
         {
-            option = getOption(service, subject, subject.subjectData(), key, contexts);
+            return Optional.ofNullable(((BaseSubject<?>) subject).permissionSnapshot(contexts).option(key));
         }
 
-        if (!option.isPresent()) {
-
-            final List<Subject> parents = getParents(contexts, subject);
-            parents.sort(FileSubject::compare);
-            for (Subject parent : parents)
+        for (Subject s : getOptionOrder(subject, contexts, recurseDefault))
+        {
+            Optional<FoundOption> option = getOption(service, s, s.transientSubjectData(), key, contexts);
+            if (!option.isPresent())
             {
-                // TODO do not check a parent multiple times
-                option = getOption(service, parent, key, contexts, false);
-                if (option.isPresent())
-                {
-                    return option;
-                }
+                option = getOption(service, s, s.subjectData(), key, contexts);
             }
+            if (option.isPresent())
+            {
+                return option;
+            }
+        }
+        return Optional.empty();
+    }
 
+    /**
+     * Returns the subjects in the order options are resolved in:
+     * the subject, then each parent with its parents ordered by priority and finally the defaults of the subject.
+     * <p>Unlike for permissions the defaults of parents are not inherited. Every subject is contained once.
+     *
+     * @param subject the subject
+     * @param contexts the contexts
+     * @param recurseDefault whether to include the defaults of the subject
+     *
+     * @return the subjects in resolution order
+     */
+    public static List<Subject> getOptionOrder(Subject subject, Set<Context> contexts, boolean recurseDefault)
+    {
+        Set<Subject> order = new LinkedHashSet<>();
+        collectOptionOrder(subject, contexts, recurseDefault, order);
+        return new ArrayList<>(order);
+    }
+
+    private static void collectOptionOrder(Subject subject, Set<Context> contexts, boolean recurseDefault, Set<Subject> order)
+    {
+        if (!order.add(subject) && !recurseDefault)
+        {
+            return; // already checked
         }
 
-        if (recurseDefault && !option.isPresent())
+        for (Subject parent : getParents(contexts, subject))
+        {
+            collectOptionOrder(parent, contexts, false, order);
+        }
+
+        if (recurseDefault)
         {
             Subject defaults = subject.containingCollection().defaults();
-            if (defaults == subject)
+            if (defaults != subject) // Stop recursion at global default
             {
-                return option; // Stop recursion at global default
+                collectOptionOrder(defaults, contexts, true, order);
             }
-            option = getOption(service, defaults, key, contexts, true);
         }
-
-        return option;
     }
 
     public static Component permText(CommandCause cmdSource, String permission, PermissionService service, I18n i18n)
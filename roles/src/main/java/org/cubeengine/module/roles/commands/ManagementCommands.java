@@ -36,6 +36,8 @@ import org.cubeengine.module.roles.Roles;
 import org.cubeengine.module.roles.RolesUtil;
 import org.cubeengine.module.roles.commands.provider.PermissionCompleter;
 import org.cubeengine.module.roles.service.RolesPermissionService;
+import org.cubeengine.module.roles.service.RolesPermissionService.TimedCalculator;
+import org.cubeengine.module.roles.service.data.SubjectDataWriter;
 import org.cubeengine.module.roles.service.subject.FileSubject;
 import org.spongepowered.api.command.CommandCause;
 import org.spongepowered.api.service.permission.PermissionDescription;
@@ -43,6 +45,7 @@ import org.spongepowered.api.service.permission.PermissionService;
 import org.spongepowered.api.service.permission.Subject;
 
 import static org.cubeengine.libcube.service.i18n.formatter.MessageType.NEGATIVE;
+import static org.cubeengine.libcube.service.i18n.formatter.MessageType.NEUTRAL;
 import static org.cubeengine.libcube.service.i18n.formatter.MessageType.POSITIVE;
 
 @Command(name = "admin", desc = "Manages the module", alias = "manadmin")
@@ -84,6 +87,7 @@ public class ManagementCommands extends DispatcherCommand
                 ((FileSubject)subject).subjectData().save(CompletableFuture.completedFuture(true));
             }
         }
+        service.getWriter().flush();
 
         i18n.send(context, POSITIVE, "{text:Roles} all configurations saved!");
     }
@@ -113,6 +117,27 @@ public class ManagementCommands extends DispatcherCommand
         }
     }
 
+    @Command(desc = "Shows how often and how long the context calculators run")
+    public void contextStats(CommandCause context)
+    {
+        for (TimedCalculator calculator : service.getCalculators())
+        {
+            long calls = calculator.getCalls();
+            double micros = calls == 0 ? 0 : calculator.getNanos() / 1000d / calls;
+            i18n.send(context, NEUTRAL, "{name}: {amount} calls {decimal:2}µs per call",
+                      calculator.getCalculator().getClass().getSimpleName(), calls, micros);
+        }
+    }
+
+    @Command(desc = "Shows statistics of the background saving of subjects")
+    public void saveStats(CommandCause context)
+    {
+        SubjectDataWriter writer = service.getWriter();
+        i18n.send(context, NEUTRAL, "Pending: {amount} Written: {amount} Coalesced: {amount} Failed: {amount}",
+                  writer.getQueueDepth(), writer.getWrites(), writer.getCoalesced(), writer.getFailures());
+        i18n.send(context, NEUTRAL, "Average latency: {decimal:2}ms", writer.getAverageLatencyMillis());
+    }
+
     @Command(desc = "Searches for registered Permissions")
     public void findPermission(CommandCause sender, @Parser(completer = PermissionCompleter.class) String permission)
     {
@@ -270,9 +270,7 @@ public class UserInformationCommands extends DispatcherCommand
             }
             return;
         }
-        try
-        {
-            Subject subject = service.userSubjects().loadSubject(player.identifier()).get();
+        service.userSubjects().loadSubject(player.identifier()).thenAccept(subject -> {
             Map<String, FoundOption> options = new HashMap<>();
             RolesUtil.fillOptions(subject, contexts, options, service);
             i18n.send(ctx, NEUTRAL, "Options of {user} in {context}:", player, context);
@@ -286,10 +284,6 @@ public class UserInformationCommands extends DispatcherCommand
                 final TextComponent key = Component.text(entry.getKey(), NamedTextColor.YELLOW).hoverEvent(HoverEvent.showText(hoverText));
                 ctx.sendMessage(Identity.nil(), i18n.composeMessage(ctx, Style.empty(), "- {txt}{text:\\::color=WHITE} {name:color=GOLD}", key, entry.getValue().value));
             }
-        }
-        catch (InterruptedException | ExecutionException e)
-        {
-            throw new IllegalStateException(e);
-        }
+        });
     }
 }
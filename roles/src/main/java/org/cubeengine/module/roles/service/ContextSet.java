@@ -0,0 +1,134 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.service;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.spongepowered.api.service.context.Context;
+
+/**
+ * An immutable set of contexts with a precomputed hash.
+ * <p>Context sets are interned by the {@link RolesPermissionService} so equal sets are usually the same instance
+ * and can be used as cache keys without rehashing or copying.
+ */
+public final class ContextSet extends AbstractSet<Context>
+{
+    private final Context[] contexts;
+    private final int hash;
+
+    private ContextSet(Set<Context> contexts)
+    {
+        this.contexts = contexts.toArray(new Context[0]);
+        int hash = 0;
+        for (Context context : this.contexts)
+        {
+            hash += context.hashCode();
+        }
+        this.hash = hash;
+    }
+
+    /**
+     * Returns an immutable copy of the contexts or the contexts themselves if they are a ContextSet already
+     *
+     * @param contexts the contexts
+     *
+     * @return the ContextSet
+     */
+    public static ContextSet of(Set<Context> contexts)
+    {
+        if (contexts instanceof ContextSet)
+        {
+            return ((ContextSet) contexts);
+        }
+        return new ContextSet(contexts);
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        for (Context context : this.contexts)
+        {
+            if (context.equals(o))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<Context> iterator()
+    {
+        return new Iterator<Context>()
+        {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next < contexts.length;
+            }
+
+            @Override
+            public Context next()
+            {
+                if (next >= contexts.length)
+                {
+                    throw new NoSuchElementException();
+                }
+                return contexts[next++];
+            }
+        };
+    }
+
+    @Override
+    public int size()
+    {
+        return this.contexts.length;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o instanceof ContextSet)
+        {
+            ContextSet other = (ContextSet) o;
+            return other.hash == this.hash && other.contexts.length == this.contexts.length && this.containsAll(other);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(this.contexts);
+    }
+}
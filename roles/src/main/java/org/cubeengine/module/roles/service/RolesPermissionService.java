@@ -20,6 +20,7 @@ package org.cubeengine.module.roles.service;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,6 +32,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -39,14 +42,20 @@ import org.cubeengine.converter.ConverterManager;
 import org.cubeengine.libcube.service.filesystem.ConfigLoader;
 import org.cubeengine.libcube.service.filesystem.FileManager;
 import org.cubeengine.libcube.service.permission.PermissionManager;
+import org.cubeengine.libcube.service.task.TaskManager;
 import org.cubeengine.module.roles.Roles;
 import org.cubeengine.module.roles.RolesConfig;
+import org.cubeengine.module.roles.RolesUtil;
+import org.cubeengine.module.roles.RolesUtil.FoundPermission;
 import org.cubeengine.module.roles.config.PermissionTree;
 import org.cubeengine.module.roles.config.PermissionTreeConverter;
 import org.cubeengine.module.roles.config.Priority;
 import org.cubeengine.module.roles.config.PriorityConverter;
 import org.cubeengine.module.roles.service.collection.FileBasedCollection;
 import org.cubeengine.module.roles.service.collection.UserCollection;
+import org.cubeengine.module.roles.service.data.SubjectDataWriter;
+import org.cubeengine.module.roles.service.subject.BaseSubject;
+import org.cubeengine.module.roles.service.subject.PermissionSnapshot;
 import org.cubeengine.module.roles.service.subject.RolesSubjectReference;
 import org.cubeengine.reflect.Reflector;
 import org.spongepowered.api.Sponge;
@@ -69,16 +78,25 @@ import static org.spongepowered.api.service.permission.SubjectData.GLOBAL_CONTEX
 public class RolesPermissionService implements PermissionService, ContextService
 {
     private final ConcurrentMap<String, SubjectCollection> collections = new ConcurrentHashMap<>();
-    private final List<ContextCalculator> calculators = new CopyOnWriteArrayList<>();
+    private static final int MAX_INTERNED_CONTEXTS = 1 << 12;
+    private static final int MAX_CACHED_CAUSES = 1 << 10;
+
+    private final List<TimedCalculator> calculators = new CopyOnWriteArrayList<>();
+    private final Map<Set<Context>, ContextSet> internedContexts = new ConcurrentHashMap<>();
+    private final Map<Cause, ContextSet> causeContexts = new HashMap<>(); // main thread only
+    private long causeContextsTick = -1;
+    private final AtomicInteger version = new AtomicInteger();
     private Reflector reflector;
     private final Path modulePath;
 
     private RolesConfig config;
     private Logger logger;
+    private final SubjectDataWriter writer;
 
     private final Map<String, PermissionDescription> descriptionMap = new LinkedHashMap<String, PermissionDescription>();
     private Collection<PermissionDescription> descriptions;
     @Inject private PermissionManager pm;
+    @Inject private TaskManager tm;
 
     @Inject
     public RolesPermissionService(FileManager fm, Reflector reflector, Logger logger, ConfigLoader cl)
@@ -91,6 +109,7 @@ public class RolesPermissionService implements PermissionService, ContextService
         this.modulePath = fm.getModulePath(Roles.class);
         this.logger = logger;
         this.config = cl.loadConfig(RolesConfig.class);
+        this.writer = new SubjectDataWriter(logger);
         collections.put(SUBJECTS_DEFAULT, new FileBasedCollection(modulePath, this, reflector, SUBJECTS_DEFAULT, true));
         collections.put(SUBJECTS_USER, new UserCollection(this));
         collections.put(SUBJECTS_GROUP, new FileBasedCollection(modulePath, this, reflector, SUBJECTS_GROUP, true));
@@ -145,7 +164,7 @@ public class RolesPermissionService implements PermissionService, ContextService
     @Override
     public void registerContextCalculator(ContextCalculator calculator)
     {
-        calculators.add(calculator);
+        calculators.add(new TimedCalculator(calculator));
     }
 
     @Override
@@ -154,14 +173,141 @@ public class RolesPermissionService implements PermissionService, ContextService
         return this.contextsFor(Sponge.server().causeStackManager().currentCause());
     }
 
+    /**
+     * Returns the interned contexts for a cause.
+     * <p>On the main thread the contexts of a cause are calculated once per tick.
+     *
+     * @param cause the cause
+     *
+     * @return the contexts
+     */
     @Override
     public Set<Context> contextsFor(Cause cause)
     {
-        Set<Context> contexts = new HashSet<>();
-        calculators.forEach(c -> c.accumulateContexts(cause, contexts::add));
+        if (!Sponge.isServerAvailable() || !Sponge.server().onMainThread())
+        {
+            return this.calculateContexts(cause);
+        }
+        long tick = Sponge.server().runningTimeTicks().ticks();
+        if (tick != this.causeContextsTick || this.causeContexts.size() >= MAX_CACHED_CAUSES)
+        {
+            this.causeContexts.clear();
+            this.causeContextsTick = tick;
+        }
+        ContextSet contexts = this.causeContexts.get(cause);
+        if (contexts == null)
+        {
+            contexts = this.calculateContexts(cause);
+            this.causeContexts.put(cause, contexts);
+        }
         return contexts;
     }
 
+    private ContextSet calculateContexts(Cause cause)
+    {
+        Set<Context> contexts = new HashSet<>();
+        for (TimedCalculator calculator : this.calculators)
+        {
+            calculator.accumulateContexts(cause, contexts);
+        }
+        return this.intern(contexts);
+    }
+
+    /**
+     * Returns the canonical immutable instance of a set of contexts
+     *
+     * @param contexts the contexts
+     *
+     * @return the interned contexts
+     */
+    public ContextSet intern(Set<Context> contexts)
+    {
+        ContextSet interned = this.internedContexts.get(contexts);
+        if (interned == null)
+        {
+            if (this.internedContexts.size() >= MAX_INTERNED_CONTEXTS)
+            {
+                this.internedContexts.clear();
+            }
+            interned = ContextSet.of(contexts);
+            ContextSet previous = this.internedContexts.putIfAbsent(interned, interned);
+            if (previous != null)
+            {
+                interned = previous;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Resolves multiple permissions of a subject at once.
+     * <p>The contexts and the inheritance of the subject are resolved only once for all permissions.
+     *
+     * @param subject the subject
+     * @param cause the cause to calculate the contexts for
+     * @param permissions the permissions
+     *
+     * @return the values in the order of the permissions
+     */
+    public Tristate[] permissionValues(Subject subject, Cause cause, String... permissions)
+    {
+        return this.permissionValues(subject, this.contextsFor(cause), permissions);
+    }
+
+    /**
+     * Resolves multiple permissions of a subject at once.
+     * <p>The inheritance of the subject is resolved only once for all permissions.
+     *
+     * @param subject the subject
+     * @param contexts the contexts
+     * @param permissions the permissions
+     *
+     * @return the values in the order of the permissions
+     */
+    public Tristate[] permissionValues(Subject subject, Set<Context> contexts, String... permissions)
+    {
+        Tristate[] values = new Tristate[permissions.length];
+        Subject resolved = this.resolveSubject(subject);
+        if (resolved instanceof BaseSubject)
+        {
+            PermissionSnapshot snapshot = ((BaseSubject<?>) resolved).permissionSnapshot(contexts);
+            for (int i = 0; i < permissions.length; i++)
+            {
+                FoundPermission found = permissions[i] == null ? null : snapshot.find(permissions[i]);
+                RolesUtil.debugPermission(resolved, permissions[i], found);
+                values[i] = found == null ? Tristate.UNDEFINED : Tristate.fromBoolean(found.value);
+            }
+            return values;
+        }
+        for (int i = 0; i < permissions.length; i++)
+        {
+            values[i] = subject.permissionValue(permissions[i], contexts);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the subject of this service backing given subject e.g. the UserSubject of a player
+     */
+    private Subject resolveSubject(Subject subject)
+    {
+        if (subject instanceof BaseSubject)
+        {
+            return subject;
+        }
+        SubjectCollection collection = this.collections.get(subject.containingCollection().identifier());
+        if (collection == null)
+        {
+            return subject;
+        }
+        return collection.subject(subject.identifier()).orElse(subject);
+    }
+
+    public List<TimedCalculator> getCalculators()
+    {
+        return Collections.unmodifiableList(calculators);
+    }
+
     public RolesConfig getConfig()
     {
         return config;
@@ -241,6 +387,93 @@ public class RolesPermissionService implements PermissionService, ContextService
         return pm;
     }
 
+    public TaskManager getTaskManager()
+    {
+        return tm;
+    }
+
+    public SubjectDataWriter getWriter()
+    {
+        return writer;
+    }
+
+    /**
+     * Returns the version of the subject data of this service.
+     * <p>The version changes whenever permissions, options or parents of any subject change.
+     *
+     * @return the version
+     */
+    public int getVersion()
+    {
+        return version.get();
+    }
+
+    /**
+     * Invalidates all data computed from the subject data of this service.
+     * <p>Cached parents of changed subjects must be invalidated before.
+     */
+    public void markChanged()
+    {
+        version.incrementAndGet();
+    }
+
+    /**
+     * A registered ContextCalculator measuring how often and how long it is called
+     */
+    public static final class TimedCalculator
+    {
+        private final ContextCalculator calculator;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private TimedCalculator(ContextCalculator calculator)
+        {
+            this.calculator = calculator;
+        }
+
+        private void accumulateContexts(Cause cause, Set<Context> contexts)
+        {
+            long start = System.nanoTime();
+            this.calculator.accumulateContexts(cause, contexts::add);
+            this.nanos.add(System.nanoTime() - start);
+            this.calls.increment();
+        }
+
+        public ContextCalculator getCalculator()
+        {
+            return calculator;
+        }
+
+        public long getCalls()
+        {
+            return calls.sum();
+        }
+
+        public long getNanos()
+        {
+            return nanos.sum();
+        }
+    }
+
+    /**
+     * Unloads subjects that are no longer needed
+     */
+    public void unloadSubjects()
+    {
+        int unloaded = this.userSubjects().unloadIdle();
+        for (SubjectCollection collection : this.loadedCollections().values())
+        {
+            if (collection instanceof FileBasedCollection)
+            {
+                unloaded += ((FileBasedCollection) collection).unloadQueued();
+            }
+        }
+        if (unloaded > 0 && config.debug)
+        {
+            logger.debug("Unloaded {} subjects", unloaded);
+        }
+    }
+
     public void fullReload()
     {
         this.getConfig().reload();
@@ -252,7 +485,8 @@ public class RolesPermissionService implements PermissionService, ContextService
 
         this.userSubjects().reload();
 
-        // TODO remove cached data ; needed?
+        RolesUtil.invalidateCache();
+        this.markChanged();
     }
 
 }
@@ -83,7 +83,19 @@ public abstract class BaseSubjectCollection implements SubjectCollection
     @Override
     public final Optional<Subject> subject(String identifier)
     {
-        return Optional.ofNullable(subjects.get(identifier));
+        Subject subject = subjects.get(identifier);
+        if (subject != null)
+        {
+            this.onResolve(subject);
+        }
+        return Optional.ofNullable(subject);
+    }
+
+    /**
+     * Called when a loaded subject is resolved by its identifier
+     */
+    protected void onResolve(Subject subject)
+    {
     }
 
     @Override
@@ -131,7 +143,7 @@ public abstract class BaseSubjectCollection implements SubjectCollection
     @Override
     public CompletableFuture<Map<SubjectReference, Boolean>> allWithPermission(String permission)
     {
-        return allIdentifiers().thenApply(this::loadSubjects0).thenApply(s -> {
+        return allIdentifiers().thenCompose(this::loadSubjects).thenApply(s -> {
             final Map<SubjectReference, Boolean> result = new HashMap<>();
             s.values().forEach(elem -> collectPermRef(elem, permission, elem.contextCause(), result));
             return Collections.unmodifiableMap(result);
@@ -141,7 +153,7 @@ public abstract class BaseSubjectCollection implements SubjectCollection
     @Override
     public CompletableFuture<Map<SubjectReference, Boolean>> allWithPermission(String permission, Cause cause)
     {
-        return allIdentifiers().thenApply(this::loadSubjects0).thenApply(s -> {
+        return allIdentifiers().thenCompose(this::loadSubjects).thenApply(s -> {
             final Map<SubjectReference, Boolean> result = new HashMap<>();
             s.values().forEach(elem -> collectPermRef(elem, permission, cause, result));
             return Collections.unmodifiableMap(result);
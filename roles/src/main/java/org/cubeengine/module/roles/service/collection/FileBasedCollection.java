@@ -22,6 +22,7 @@ import static java.nio.file.Files.newDirectoryStream;
 import static org.cubeengine.libcube.service.filesystem.FileExtensionFilter.YAML;
 
 import org.cubeengine.libcube.util.StringUtils;
+import org.cubeengine.module.roles.RolesUtil;
 import org.cubeengine.module.roles.config.RoleConfig;
 import org.cubeengine.module.roles.service.RolesPermissionService;
 import org.cubeengine.module.roles.service.subject.FileSubject;
@@ -52,7 +53,7 @@ public class FileBasedCollection extends BaseSubjectCollection
     private Reflector reflector;
     private Map<UUID, FileSubject> subjectByUUID = new ConcurrentHashMap<>();
 
-    private Queue<Subject> unloadQueue = new ConcurrentLinkedDeque<>(); // TODO do unload
+    private Queue<Subject> unloadQueue = new ConcurrentLinkedDeque<>();
 
     public FileBasedCollection(Path modulePath, RolesPermissionService service, Reflector reflector, String identifier)
     {
@@ -190,10 +191,9 @@ public class FileBasedCollection extends BaseSubjectCollection
             return false;
         }
 
-        if (!role.subjectData().getConfig().getFile().delete())
-        {
-            throw new IllegalStateException();
-        }
+        // write pending changes first so they are not written to the old file afterwards
+        service.getWriter().flush(role.subjectData());
+        role.subjectData().delete();
         setRoleName(role, newName);
 
         subjects.values().stream()
@@ -256,6 +256,8 @@ public class FileBasedCollection extends BaseSubjectCollection
         {
             loadAll();
         }
+        RolesUtil.invalidateCache();
+        service.markChanged();
         return this;
     }
 
@@ -266,6 +268,8 @@ public class FileBasedCollection extends BaseSubjectCollection
         subjects.put(name, subject);
         config.roleName = name;
         config.setFile(getFile(name).toFile());
+        RolesUtil.invalidateCache();
+        service.markChanged();
         subject.subjectData().save(CompletableFuture.completedFuture(true));
     }
 
@@ -303,7 +307,37 @@ public class FileBasedCollection extends BaseSubjectCollection
     @Override
     public void suggestUnload(String identifier)
     {
+        if (preload)
+        {
+            return; // Preloaded roles are resolved as parents by their UUID and stay loaded
+        }
         Subject unload = this.subjects.remove(identifier);
-        this.unloadQueue.add(unload);
+        if (unload != null)
+        {
+            this.subjectByUUID.remove(((FileSubject) unload).subjectData().getConfig().identifier);
+            this.unloadQueue.add(unload);
+        }
+    }
+
+    /**
+     * Drops the subjects suggested to be unloaded once their changes are saved
+     *
+     * @return the amount of unloaded subjects
+     */
+    public int unloadQueued()
+    {
+        int unloaded = 0;
+        Iterator<Subject> it = this.unloadQueue.iterator();
+        while (it.hasNext())
+        {
+            FileSubject next = (FileSubject) it.next();
+            if (!service.getWriter().isPending(next.subjectData()))
+            {
+                it.remove();
+                RolesUtil.invalidateCache(next);
+                unloaded++;
+            }
+        }
+        return unloaded;
     }
 }
@@ -17,13 +17,21 @@
  */
 package org.cubeengine.module.roles.service.collection;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.cubeengine.module.roles.RolesUtil;
 import org.cubeengine.module.roles.service.RolesPermissionService;
+import org.cubeengine.module.roles.service.data.BaseSubjectData;
 import org.cubeengine.module.roles.service.subject.UserSubject;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.service.permission.PermissionService;
@@ -32,6 +40,9 @@ import org.spongepowered.api.user.UserManager;
 
 public class UserCollection extends BaseSubjectCollection
 {
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+    private static final int MAX_OFFLINE_SUBJECTS = 1000;
+
     private RolesPermissionService service;
 
     public UserCollection(RolesPermissionService service)
@@ -46,6 +57,7 @@ public class UserCollection extends BaseSubjectCollection
         Subject result = this.subjects.get(identifier);
         if (result != null)
         {
+            ((UserSubject) result).touch();
             return ((UserSubject) result);
         }
         try
@@ -60,6 +72,43 @@ public class UserCollection extends BaseSubjectCollection
         }
     }
 
+    @Override
+    protected void onResolve(Subject subject)
+    {
+        ((UserSubject) subject).touch();
+    }
+
+    /**
+     * Loads the subject and its data without blocking
+     */
+    @Override
+    public CompletableFuture<Subject> loadSubject(String identifier)
+    {
+        return super.loadSubject(identifier).thenCompose(s -> ((UserSubject) s).subjectData().prefetch().thenApply(d -> s));
+    }
+
+    /**
+     * Loads the subjects and their data concurrently
+     */
+    @Override
+    public CompletableFuture<Map<String, Subject>> loadSubjects(Iterable<String> identifiers)
+    {
+        List<CompletableFuture<Subject>> futures = new ArrayList<>();
+        for (String identifier : identifiers)
+        {
+            futures.add(this.loadSubject(identifier));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, Subject> subjects = new HashMap<>();
+            for (CompletableFuture<Subject> future : futures)
+            {
+                Subject subject = future.join();
+                subjects.put(subject.identifier(), subject);
+            }
+            return subjects;
+        });
+    }
+
     public void reload()
     {
         for (Subject subject : subjects.values())
@@ -105,8 +154,65 @@ public class UserCollection extends BaseSubjectCollection
         });
     }
 
+    /**
+     * Unloads the subjects of users that are not online and were not used for a while.
+     * <p>The least recently used subjects are unloaded once more than {@link #MAX_OFFLINE_SUBJECTS} offline users are loaded.
+     * Unloaded subjects are loaded again from the user data when needed.
+     *
+     * @return the amount of unloaded subjects
+     */
+    public int unloadIdle()
+    {
+        long now = System.currentTimeMillis();
+        List<UserSubject> offline = new ArrayList<>();
+        for (Subject subject : this.subjects.values())
+        {
+            if (canUnload((UserSubject) subject))
+            {
+                offline.add(((UserSubject) subject));
+            }
+        }
+        offline.sort(Comparator.comparingLong(UserSubject::getLastAccess));
+        int unloaded = 0;
+        for (int i = 0; i < offline.size(); i++)
+        {
+            UserSubject subject = offline.get(i);
+            if (offline.size() - i > MAX_OFFLINE_SUBJECTS || now - subject.getLastAccess() > IDLE_TIMEOUT)
+            {
+                this.unload(subject);
+                unloaded++;
+            }
+        }
+        return unloaded;
+    }
+
+    /**
+     * Subjects of online players, with changes in progress or unsaved or with transient data are kept
+     */
+    private boolean canUnload(UserSubject subject)
+    {
+        // changes in progress are checked first as they are pending once completed
+        return !subject.player().isPresent()
+            && !subject.subjectData().isChanging()
+            && !service.getWriter().isPending(subject.subjectData())
+            && ((BaseSubjectData) subject.transientSubjectData()).isEmpty();
+    }
+
+    private void unload(UserSubject subject)
+    {
+        if (this.subjects.remove(subject.identifier(), subject))
+        {
+            RolesUtil.invalidateCache(subject);
+        }
+    }
+
     @Override
     public void suggestUnload(String identifier)
     {
+        Subject subject = this.subjects.get(identifier);
+        if (subject != null && canUnload((UserSubject) subject))
+        {
+            this.unload(((UserSubject) subject));
+        }
     }
 }
@@ -151,15 +151,18 @@ public class BaseSubjectData implements SubjectData
     {
         return CompletableFuture.supplyAsync(() -> {
             boolean changed = false;
-            for (Map<String, String> map : options.values())
+            synchronized (this)
             {
-                if (!map.isEmpty())
+                for (Map<String, String> map : options.values())
                 {
-                    changed = true;
+                    if (!map.isEmpty())
+                    {
+                        changed = true;
+                    }
+                    map.clear();
                 }
-                map.clear();
             }
-            return changed;
+            return markChanged(changed);
         });
     }
 
@@ -203,15 +206,18 @@ public class BaseSubjectData implements SubjectData
     {
         return CompletableFuture.supplyAsync(() -> {
             boolean changed = false;
-            for (Map<String, Boolean> map : permissions.values())
+            synchronized (this)
             {
-                if (!map.isEmpty())
+                for (Map<String, Boolean> map : permissions.values())
                 {
-                    changed = true;
+                    if (!map.isEmpty())
+                    {
+                        changed = true;
+                    }
+                    map.clear();
                 }
-                map.clear();
             }
-            return changed;
+            return markChanged(changed);
         });
     }
 
@@ -227,7 +233,7 @@ public class BaseSubjectData implements SubjectData
     @Override
     public CompletableFuture<Boolean> addParent(Set<Context> contexts, SubjectReference parent)
     {
-        CompletableFuture<Boolean> ret = parent.resolve().thenApply(p -> {
+        return parent.resolve().thenApply(p -> {
             if (PermissionService.SUBJECTS_DEFAULT.equals(parent.collectionIdentifier())) {
                 return false; // You can never add defaults as parents
             }
@@ -246,8 +252,6 @@ public class BaseSubjectData implements SubjectData
 
             return operate(contexts, parents, l -> l.add(p.asSubjectReference()), ArrayList::new);
         });
-        RolesUtil.invalidateCache();
-        return ret;
     }
 
     protected void checkForCircularDependency(Set<Context> contexts, Subject parent, int depth)
@@ -267,39 +271,36 @@ public class BaseSubjectData implements SubjectData
     @Override
     public CompletableFuture<Boolean> removeParent(Set<Context> contexts, SubjectReference parent)
     {
-        CompletableFuture<Boolean> ret = CompletableFuture.supplyAsync(() -> operate(contexts, parents, l -> l.remove(parent)));
-        RolesUtil.invalidateCache();
-        return ret;
+        return CompletableFuture.supplyAsync(() -> operate(contexts, parents, l -> l.remove(parent)));
     }
 
     @Override
     public CompletableFuture<Boolean> clearParents()
     {
-        CompletableFuture<Boolean> ret = CompletableFuture.supplyAsync(() -> {
+        return CompletableFuture.supplyAsync(() -> {
             boolean changed = false;
-            for (List<SubjectReference> list : parents.values()) {
-                if (!list.isEmpty()) {
-                    list.clear();
-                    changed = true;
+            synchronized (this)
+            {
+                for (List<SubjectReference> list : parents.values()) {
+                    if (!list.isEmpty()) {
+                        list.clear();
+                        changed = true;
+                    }
                 }
             }
-            return changed;
+            return markChanged(changed);
         });
-        RolesUtil.invalidateCache();
-        return ret;
     }
 
     @Override
     public CompletableFuture<Boolean> clearParents(Set<Context> contexts)
     {
-        CompletableFuture<Boolean> ret = CompletableFuture.supplyAsync(() ->
+        return CompletableFuture.supplyAsync(() ->
                 operate(contexts, parents, l -> {
                     boolean empty = !l.isEmpty();
                     l.clear();
                     return empty;
                 }));
-        RolesUtil.invalidateCache();
-        return ret;
     }
 
     @FunctionalInterface
@@ -313,16 +314,39 @@ public class BaseSubjectData implements SubjectData
         return operate(contexts, all, operator, () -> null);
     }
 
+    /**
+     * Changes the data. Holds the monitor of this data so it can be copied consistently while it is changed.
+     */
     private <T> boolean operate(Set<Context> contexts, Map<Context, T> all, Operator<T> operator, Supplier<T> provider)
     {
         boolean changed = false;
-        if (contexts.isEmpty())
+        synchronized (this)
         {
-            changed = operateOn(all, operator, provider, changed, GLOBAL);
+            if (contexts.isEmpty())
+            {
+                changed = operateOn(all, operator, provider, changed, GLOBAL);
+            }
+            for (Context context : contexts)
+            {
+                changed = operateOn(all, operator, provider, changed, context);
+            }
         }
-        for (Context context : contexts)
+        return markChanged(changed);
+    }
+
+    /**
+     * Invalidates the data computed from subjects of the service if the data was changed
+     *
+     * @param changed whether the data was changed
+     *
+     * @return changed
+     */
+    protected boolean markChanged(boolean changed)
+    {
+        if (changed)
         {
-            changed = operateOn(all, operator, provider, changed, context);
+            RolesUtil.invalidateCache(subject);
+            service.markChanged();
         }
         return changed;
     }
@@ -370,6 +394,16 @@ public class BaseSubjectData implements SubjectData
         return result;
     }
 
+    /**
+     * Returns whether no permissions, options or parents are set in any context
+     */
+    public boolean isEmpty()
+    {
+        return this.permissions.values().stream().allMatch(Map::isEmpty)
+            && this.options.values().stream().allMatch(Map::isEmpty)
+            && this.parents.values().stream().allMatch(List::isEmpty);
+    }
+
     @Override
     public Subject subject()
     {
@@ -426,10 +460,8 @@ public class BaseSubjectData implements SubjectData
         {
             future = this.clearOptions(contexts);
         }
-        future = future.thenCompose(b -> CompletableFuture.allOf(parents.stream().map(p ->
+        return future.thenCompose(b -> CompletableFuture.allOf(parents.stream().map(p ->
                        this.addParent(contexts, p)).toArray(CompletableFuture[]::new)).thenApply(v -> true));
-        RolesUtil.invalidateCache();
-        return future;
     }
 
     @Override
@@ -448,20 +480,22 @@ public class BaseSubjectData implements SubjectData
     public CompletableFuture<Boolean> copyFrom(SubjectData other, TransferMethod method)
     {
         final CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> {
-            switch (method)
+            synchronized (this)
             {
-                case OVERWRITE:
-                    this.permissions.clear();
-                    this.options.clear();
-                    this.parents.clear();
-                case MERGE:
-                    this.permissions.putAll(((BaseSubjectData)other).permissions);
-                    this.options.putAll(((BaseSubjectData)other).options);
-                    this.parents.putAll(((BaseSubjectData)other).parents);
+                switch (method)
+                {
+                    case OVERWRITE:
+                        this.permissions.clear();
+                        this.options.clear();
+                        this.parents.clear();
+                    case MERGE:
+                        this.permissions.putAll(((BaseSubjectData)other).permissions);
+                        this.options.putAll(((BaseSubjectData)other).options);
+                        this.parents.putAll(((BaseSubjectData)other).parents);
+                }
             }
-            return true;
+            return markChanged(true);
         });
-        RolesUtil.invalidateCache();
         return future;
     }
 
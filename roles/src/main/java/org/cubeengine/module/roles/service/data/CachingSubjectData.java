@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.cubeengine.module.roles.service.RolesPermissionService;
 import org.spongepowered.api.service.context.Context;
@@ -30,6 +32,10 @@ import org.spongepowered.api.util.Tristate;
 
 public abstract class CachingSubjectData extends BaseSubjectData
 {
+    // held by the SubjectDataWriter while writing
+    final Object writeLock = new Object();
+    private final AtomicInteger changing = new AtomicInteger();
+
     public CachingSubjectData(RolesPermissionService service, Subject holder)
     {
         super(service, holder, false);
@@ -38,7 +44,74 @@ public abstract class CachingSubjectData extends BaseSubjectData
     protected abstract void cacheParents();
     protected abstract void cachePermissions();
     protected abstract void cacheOptions();
-    public abstract CompletableFuture<Boolean> save(CompletableFuture<Boolean> changed);
+
+    /**
+     * Writes the data to its storage. Called by the {@link SubjectDataWriter}.
+     */
+    protected abstract void write();
+
+    /**
+     * Updates the command trees of players affected by a change
+     */
+    protected abstract void updateCommandTrees();
+
+    /**
+     * Schedules the data to be written once the change completed with true
+     *
+     * @param changed the change
+     *
+     * @return the change
+     */
+    /**
+     * Starts a change of this data and saves it once completed. The data is marked as changing until then.
+     *
+     * @param change starts the change
+     *
+     * @return the change
+     */
+    private CompletableFuture<Boolean> change(Supplier<CompletableFuture<Boolean>> change)
+    {
+        this.changing.incrementAndGet();
+        onChange();
+        CompletableFuture<Boolean> changed;
+        try
+        {
+            changed = change.get();
+        }
+        catch (RuntimeException e)
+        {
+            this.changing.decrementAndGet();
+            throw e;
+        }
+        return save(changed).whenComplete((c, t) -> this.changing.decrementAndGet());
+    }
+
+    /**
+     * Called when a change of this data starts
+     */
+    protected void onChange()
+    {
+    }
+
+    /**
+     * Returns whether a change of this data is still in progress
+     */
+    public boolean isChanging()
+    {
+        return this.changing.get() != 0;
+    }
+
+    public CompletableFuture<Boolean> save(CompletableFuture<Boolean> changed)
+    {
+        return changed.thenApply(c -> {
+            if (c)
+            {
+                service.getWriter().schedule(this);
+                updateCommandTrees();
+            }
+            return c;
+        });
+    }
 
     @Override
     public Map<Set<Context>, List<SubjectReference>> allParents()
@@ -58,28 +131,28 @@ public abstract class CachingSubjectData extends BaseSubjectData
     public CompletableFuture<Boolean> addParent(Set<Context> contexts, SubjectReference parent)
     {
         cacheParents();
-        return save(super.addParent(contexts, parent));
+        return change(() -> super.addParent(contexts, parent));
     }
 
     @Override
     public CompletableFuture<Boolean> removeParent(Set<Context> contexts, SubjectReference parent)
     {
         cacheParents();
-        return save(super.removeParent(contexts, parent));
+        return change(() -> super.removeParent(contexts, parent));
     }
 
     @Override
     public CompletableFuture<Boolean> clearParents()
     {
         cacheParents();
-        return save(super.clearParents());
+        return change(() -> super.clearParents());
     }
 
     @Override
     public CompletableFuture<Boolean> clearParents(Set<Context> contexts)
     {
         cacheParents();
-        return save(super.clearParents(contexts));
+        return change(() -> super.clearParents(contexts));
     }
 
     @Override
@@ -100,21 +173,21 @@ public abstract class CachingSubjectData extends BaseSubjectData
     public CompletableFuture<Boolean> setPermission(Set<Context> contexts, String permission, Tristate value)
     {
         cachePermissions();
-        return save(super.setPermission(contexts, permission, value));
+        return change(() -> super.setPermission(contexts, permission, value));
     }
 
     @Override
     public CompletableFuture<Boolean> clearPermissions()
     {
         cachePermissions();
-        return save(super.clearPermissions());
+        return change(() -> super.clearPermissions());
     }
 
     @Override
     public CompletableFuture<Boolean> clearPermissions(Set<Context> contexts)
     {
         cachePermissions();
-        return save(super.clearPermissions(contexts));
+        return change(() -> super.clearPermissions(contexts));
     }
 
     @Override
@@ -135,21 +208,21 @@ public abstract class CachingSubjectData extends BaseSubjectData
     public CompletableFuture<Boolean> setOption(Set<Context> contexts, String key, String value)
     {
         cacheOptions();
-        return save(super.setOption(contexts, key, value));
+        return change(() -> super.setOption(contexts, key, value));
     }
 
     @Override
     public CompletableFuture<Boolean> clearOptions(Set<Context> contexts)
     {
         cacheOptions();
-        return save(super.clearOptions(contexts));
+        return change(() -> super.clearOptions(contexts));
     }
 
     @Override
     public CompletableFuture<Boolean> clearOptions()
     {
         cacheOptions();
-        return save(super.clearOptions());
+        return change(() -> super.clearOptions());
     }
 
     public void reload()
@@ -157,5 +230,6 @@ public abstract class CachingSubjectData extends BaseSubjectData
         this.parents.clear();
         this.options.clear();
         this.permissions.clear();
+        this.markChanged(true);
     }
 }
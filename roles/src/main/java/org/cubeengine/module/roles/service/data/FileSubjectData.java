@@ -50,52 +50,55 @@ public class FileSubjectData extends CachingSubjectData
     }
 
     @Override
-    public CompletableFuture<Boolean> save(CompletableFuture<Boolean> c)
+    protected void write()
     {
-        return c.thenApply(changed -> {
-            if (changed)
+        cacheOptions();
+        cachePermissions();
+        cacheParents();
+        Map<String, RoleConfig.ContextSetting> settings = new HashMap<>();
+        synchronized (this) // copy while no change is in progress
+        {
+            for (Map.Entry<Context, List<SubjectReference>> entry : parents.entrySet())
             {
-                cacheOptions();
-                cachePermissions();
-                cacheParents();
-                config.settings = new HashMap<>();
-                for (Map.Entry<Context, List<SubjectReference>> entry : parents.entrySet())
-                {
-                    List<String> collect = entry.getValue().stream()
-                            .map(r -> r.collectionIdentifier() + ":" + r.subjectIdentifier() + "#" + FileSubject.getInternalIdentifier(r))
-                            .collect(toList());
-
-                    getContextSetting(config, entry.getKey()).parents.addAll(collect);
-                }
+                List<String> collect = entry.getValue().stream()
+                        .map(r -> r.collectionIdentifier() + ":" + r.subjectIdentifier() + "#" + FileSubject.getInternalIdentifier(r))
+                        .collect(toList());
 
-                for (Map.Entry<Context, Map<String, Boolean>> entry : permissions.entrySet())
-                {
-                    getContextSetting(config, entry.getKey()).permissions = new PermissionTree().setPermissions(entry.getValue());
-                }
+                getContextSetting(settings, entry.getKey()).parents.addAll(collect);
+            }
 
-                for (Map.Entry<Context, Map<String, String>> entry : options.entrySet())
-                {
-                    getContextSetting(config, entry.getKey()).options = entry.getValue();
-                }
+            for (Map.Entry<Context, Map<String, Boolean>> entry : permissions.entrySet())
+            {
+                getContextSetting(settings, entry.getKey()).permissions = new PermissionTree().setPermissions(entry.getValue());
+            }
 
-                try
-                {
-                    Files.createDirectories(config.getFile().toPath().getParent());
-                }
-                catch (IOException e)
-                {
-                    throw new IllegalStateException(e);
-                }
-                config.save();// TODO async
-                Sponge.server().onlinePlayers().forEach(p -> Sponge.server().commandManager().updateCommandTreeForPlayer(p));
+            for (Map.Entry<Context, Map<String, String>> entry : options.entrySet())
+            {
+                getContextSetting(settings, entry.getKey()).options = new HashMap<>(entry.getValue());
             }
-            return changed;
-        });
+        }
+        config.settings = settings;
+
+        try
+        {
+            Files.createDirectories(config.getFile().toPath().getParent());
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        config.save();
     }
 
-    private static RoleConfig.ContextSetting getContextSetting(RoleConfig config, Context context)
+    @Override
+    protected void updateCommandTrees()
     {
-        return config.settings.computeIfAbsent(stringify(context), k -> new RoleConfig.ContextSetting());
+        Sponge.server().onlinePlayers().forEach(p -> Sponge.server().commandManager().updateCommandTreeForPlayer(p));
+    }
+
+    private static RoleConfig.ContextSetting getContextSetting(Map<String, RoleConfig.ContextSetting> settings, Context context)
+    {
+        return settings.computeIfAbsent(stringify(context), k -> new RoleConfig.ContextSetting());
     }
 
     public RoleConfig getConfig()
@@ -198,15 +201,19 @@ public class FileSubjectData extends CachingSubjectData
         super.reload();
     }
 
+    /**
+     * Deletes the file of this data. Changes not written yet are discarded.
+     */
     public void delete()
     {
+        service.getWriter().cancel(this);
         try
         {
-            Files.delete(config.getFile().toPath());
+            Files.deleteIfExists(config.getFile().toPath()); // not written yet if missing
         }
         catch (IOException e)
         {
             throw new IllegalStateException(e);
         }
-   }
+    }
 }
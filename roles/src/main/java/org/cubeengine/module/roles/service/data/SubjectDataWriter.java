@@ -0,0 +1,222 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.service.data;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.Logger;
+import org.cubeengine.libcube.service.task.thread.BaseThreadFactory;
+
+/**
+ * Persists changed subject data in the background.
+ * <p>A subject is written once shortly after it was changed. Further changes until it is written are coalesced into that write.
+ */
+public class SubjectDataWriter
+{
+    private static final long WRITE_DELAY_MILLIS = 250;
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+    private final Map<CachingSubjectData, Long> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    public SubjectDataWriter(Logger logger)
+    {
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new WriterThreadFactory());
+    }
+
+    /**
+     * Schedules the data to be written
+     *
+     * @param data the data
+     */
+    public void schedule(CachingSubjectData data)
+    {
+        if (this.pending.putIfAbsent(data, System.nanoTime()) != null)
+        {
+            this.coalesced.increment();
+            return;
+        }
+        if (!this.scheduleWrite(data, WRITE_DELAY_MILLIS))
+        {
+            this.write(data); // shutting down
+        }
+    }
+
+    private boolean scheduleWrite(CachingSubjectData data, long delayMillis)
+    {
+        try
+        {
+            this.executor.schedule(() -> this.write(data), delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            return false;
+        }
+    }
+
+    private void write(CachingSubjectData data)
+    {
+        synchronized (data.writeLock)
+        {
+            // Remove before writing so changes made while writing are scheduled again
+            Long scheduled = this.pending.remove(data);
+            if (scheduled == null)
+            {
+                return; // already written
+            }
+            try
+            {
+                data.write();
+                this.writes.increment();
+                this.latencyNanos.add(System.nanoTime() - scheduled);
+            }
+            catch (RuntimeException e)
+            {
+                this.failures.increment();
+                this.logger.error("Could not save subject data of {}. Retrying later.", data.subject(), e);
+                if (this.pending.putIfAbsent(data, scheduled) == null && !this.scheduleWrite(data, RETRY_DELAY_MILLIS))
+                {
+                    this.logger.error("Subject data of {} could not be saved!", data.subject());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the data on the calling thread if it has pending changes
+     *
+     * @param data the data
+     */
+    public void flush(CachingSubjectData data)
+    {
+        this.write(data);
+    }
+
+    /**
+     * Discards pending changes of the data. Once this returns the data is not being written anymore.
+     *
+     * @param data the data
+     */
+    public void cancel(CachingSubjectData data)
+    {
+        synchronized (data.writeLock)
+        {
+            this.pending.remove(data);
+        }
+    }
+
+    /**
+     * Returns whether the data has changes that are not written yet
+     */
+    public boolean isPending(CachingSubjectData data)
+    {
+        return this.pending.containsKey(data);
+    }
+
+    /**
+     * Writes all pending data on the calling thread
+     */
+    public void flush()
+    {
+        for (CachingSubjectData data : new ArrayList<>(this.pending.keySet()))
+        {
+            this.write(data);
+        }
+    }
+
+    /**
+     * Writes all pending data and stops the writer
+     */
+    public void shutdown()
+    {
+        this.executor.shutdown();
+        this.flush();
+        try
+        {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS))
+            {
+                this.logger.warn("Timed out waiting for subject data to be saved");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (!this.pending.isEmpty())
+        {
+            this.logger.error("Subject data of {} subjects could not be saved!", this.pending.size());
+        }
+    }
+
+    public int getQueueDepth()
+    {
+        return this.pending.size();
+    }
+
+    public long getWrites()
+    {
+        return this.writes.sum();
+    }
+
+    public long getCoalesced()
+    {
+        return this.coalesced.sum();
+    }
+
+    public long getFailures()
+    {
+        return this.failures.sum();
+    }
+
+    /**
+     * Returns the average time from the first change to the data being written
+     */
+    public double getAverageLatencyMillis()
+    {
+        long writes = this.writes.sum();
+        return writes == 0 ? 0 : this.latencyNanos.sum() / 1_000_000d / writes;
+    }
+
+    private static class WriterThreadFactory extends BaseThreadFactory
+    {
+        public WriterThreadFactory()
+        {
+            super("CubeEngine" + " - " + SubjectDataWriter.class.getSimpleName(), SubjectDataWriter.class.getPackage().getName());
+        }
+
+        @Override
+        protected Thread createThread(ThreadGroup threadGroup, Runnable r, String name)
+        {
+            return new Thread(threadGroup, r, name);
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.cubeengine.module.roles.service.RolesPermissionService;
 import org.cubeengine.module.roles.service.subject.FileSubject;
 import org.cubeengine.module.roles.service.subject.UserSubject;
 import org.spongepowered.api.Sponge;
+import org.spongepowered.api.data.DataHolder;
 import org.spongepowered.api.data.Key;
 import org.spongepowered.api.data.value.MapValue;
 import org.spongepowered.api.data.value.Value;
@@ -51,6 +52,7 @@ import static org.cubeengine.module.roles.RolesUtil.contextOf;
 public class UserSubjectData extends CachingSubjectData
 {
     private final UUID uuid;
+    private volatile CompletableFuture<Optional<User>> offlineUser;
 
     public UserSubjectData(RolesPermissionService service, UUID uuid, UserSubject holder)
     {
@@ -65,36 +67,102 @@ public class UserSubjectData extends CachingSubjectData
         {
             return player.get().get(key);
         }
-        final UserManager userManager = Sponge.server().userManager();
-        return userManager.load(uuid).join().flatMap(u -> u.get(key));
+        // Only blocks if the data was not prefetched
+        return loadUser().join().flatMap(u -> u.get(key));
+    }
+
+    private CompletableFuture<Optional<User>> loadUser()
+    {
+        CompletableFuture<Optional<User>> user = this.offlineUser;
+        if (user == null || user.isCompletedExceptionally())
+        {
+            user = Sponge.server().userManager().load(uuid);
+            this.offlineUser = user;
+        }
+        return user;
+    }
+
+    /**
+     * Loads the data of the user without blocking the calling thread
+     *
+     * @return a future completing once the data is cached
+     */
+    public CompletableFuture<UserSubjectData> prefetch()
+    {
+        if (Sponge.server().player(uuid).isPresent())
+        {
+            return CompletableFuture.completedFuture(this);
+        }
+        return loadUser().thenApply(user -> {
+            cacheParents();
+            cachePermissions();
+            cacheOptions();
+            this.offlineUser = null; // everything is cached now
+            return this;
+        });
     }
 
     @Override
-    public CompletableFuture<Boolean> save(CompletableFuture<Boolean> c)
+    public void reload()
     {
-        return c.thenApply(changed -> {
-            if (changed)
+        this.offlineUser = null;
+        super.reload();
+    }
+
+    @Override
+    protected void write()
+    {
+        cacheOptions();
+        cachePermissions();
+        cacheParents();
+        // Serialize Data while no change is in progress
+        List<String> parents;
+        Map<String, Boolean> permissions;
+        Map<String, String> options;
+        synchronized (this)
+        {
+            parents = serializeToList(this.parents);
+            permissions = serializeToMap(this.permissions);
+            options = serializeToMap(this.options);
+        }
+
+        final Optional<ServerPlayer> player = Sponge.server().player(uuid);
+        if (player.isPresent())
+        {
+            // Entity data of online players is only changed on the main thread
+            if (Sponge.server().onMainThread())
             {
-                cacheOptions();
-                cachePermissions();
-                cacheParents();
-                // Serialize Data
-                List<String> parents = serializeToList(this.parents);
-                Map<String, Boolean> permissions = serializeToMap(this.permissions);
-                Map<String, String> options = serializeToMap(this.options);
-
-                // Get User for Storage
-                final UserManager userManager = Sponge.server().userManager();
-                User user = userManager.load(uuid).join().get();
-                // Save Data in User
-                user.offer(PermissionData.PARENTS, parents);
-                user.offer(PermissionData.PERMISSIONS, permissions);
-                user.offer(PermissionData.OPTIONS, options);
-
-                Sponge.server().player(uuid).ifPresent(p -> Sponge.server().commandManager().updateCommandTreeForPlayer(p));
+                offer(player.get(), parents, permissions, options);
             }
-            return changed;
-        });
+            else
+            {
+                service.getTaskManager().runTask(() -> offer(player.get(), parents, permissions, options));
+            }
+            return;
+        }
+        // Get User for Storage
+        final UserManager userManager = Sponge.server().userManager();
+        User user = userManager.load(uuid).join().get();
+        offer(user, parents, permissions, options);
+    }
+
+    private static void offer(DataHolder.Mutable holder, List<String> parents, Map<String, Boolean> permissions, Map<String, String> options)
+    {
+        holder.offer(PermissionData.PARENTS, parents);
+        holder.offer(PermissionData.PERMISSIONS, permissions);
+        holder.offer(PermissionData.OPTIONS, options);
+    }
+
+    @Override
+    protected void onChange()
+    {
+        ((UserSubject) subject()).touch();
+    }
+
+    @Override
+    protected void updateCommandTrees()
+    {
+        Sponge.server().player(uuid).ifPresent(p -> Sponge.server().commandManager().updateCommandTreeForPlayer(p));
     }
 
     private List<String> serializeToList(Map<Context, List<SubjectReference>> map)
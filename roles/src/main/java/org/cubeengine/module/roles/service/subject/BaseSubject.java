@@ -19,9 +19,12 @@ package org.cubeengine.module.roles.service.subject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.cubeengine.module.roles.RolesUtil;
+import org.cubeengine.module.roles.RolesUtil.FoundOption;
 import org.cubeengine.module.roles.RolesUtil.FoundPermission;
 import org.cubeengine.module.roles.service.RolesPermissionService;
 import org.cubeengine.module.roles.service.data.BaseSubjectData;
@@ -37,9 +40,12 @@ import static java.util.Collections.unmodifiableList;
 
 public abstract class BaseSubject<T extends SubjectData> implements Subject
 {
+    private static final int MAX_SNAPSHOTS = 64;
+
     private BaseSubjectData transientData;
     private final SubjectCollection collection;
     protected RolesPermissionService service;
+    private final Map<Set<Context>, PermissionSnapshot> snapshots = new ConcurrentHashMap<>();
 
     private SubjectReference ref;
 
@@ -69,7 +75,8 @@ public abstract class BaseSubject<T extends SubjectData> implements Subject
         {
             return Tristate.UNDEFINED;
         }
-        FoundPermission perm = RolesUtil.findPermission(service, this, permission, contexts);
+        FoundPermission perm = permissionSnapshot(contexts).find(permission);
+        RolesUtil.debugPermission(this, permission, perm);
         if (perm != null)
         {
             return Tristate.fromBoolean(perm.value);
@@ -77,6 +84,29 @@ public abstract class BaseSubject<T extends SubjectData> implements Subject
         return Tristate.UNDEFINED;
     }
 
+    /**
+     * Returns the flattened permissions and options of this subject in given contexts rebuilding them if any subject data changed
+     *
+     * @param contexts the contexts
+     *
+     * @return the permission snapshot
+     */
+    public PermissionSnapshot permissionSnapshot(Set<Context> contexts)
+    {
+        int version = service.getVersion();
+        PermissionSnapshot snapshot = this.snapshots.get(contexts);
+        if (snapshot == null || snapshot.getVersion() != version)
+        {
+            if (this.snapshots.size() >= MAX_SNAPSHOTS)
+            {
+                this.snapshots.clear();
+            }
+            snapshot = new PermissionSnapshot(this, service.intern(contexts), version);
+            this.snapshots.put(snapshot.getContexts(), snapshot);
+        }
+        return snapshot;
+    }
+
     @Override
     public boolean isChildOf(SubjectReference parent, Cause cause)
     {
@@ -98,7 +128,8 @@ public abstract class BaseSubject<T extends SubjectData> implements Subject
     @Override
     public Optional<String> option(String key, Set<Context> contexts)
     {
-        return RolesUtil.getOption(service, this, key, contexts, true).map(found -> found.value);
+        FoundOption found = permissionSnapshot(contexts).option(key);
+        return found == null ? Optional.empty() : Optional.of(found.value);
     }
 
     @Override
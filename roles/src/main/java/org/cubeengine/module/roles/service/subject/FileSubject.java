@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import org.cubeengine.module.roles.Roles;
+import org.cubeengine.module.roles.RolesUtil;
 import org.cubeengine.module.roles.config.Priority;
 import org.cubeengine.module.roles.config.RoleConfig;
 import org.cubeengine.module.roles.service.RolesPermissionService;
@@ -133,7 +134,9 @@ public class FileSubject extends BaseSubject<FileSubjectData>
     public void setPriorityValue(int value)
     {
         subjectData().getConfig().priority = Priority.getByValue(value);
-        subjectData().getConfig().save(); // TODO async
+        RolesUtil.invalidateCache(); // parents are ordered by priority
+        service.markChanged();
+        service.getWriter().schedule(subjectData());
     }
 
     public Priority prio()
@@ -0,0 +1,171 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.service.subject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cubeengine.module.roles.RolesUtil;
+import org.cubeengine.module.roles.RolesUtil.FoundOption;
+import org.cubeengine.module.roles.RolesUtil.FoundPermission;
+import org.cubeengine.module.roles.service.ContextSet;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.permission.Subject;
+
+/**
+ * The permissions of a subject and everything it inherits from in one context set flattened into a single {@link PermissionTrie}.
+ * <p>The options are flattened into a single map when first requested.
+ * <p>A snapshot is immutable and only valid for the {@link org.cubeengine.module.roles.service.RolesPermissionService#getVersion() version}
+ * it was built for. Resolved permissions are remembered so repeated checks are a single lookup.
+ */
+public final class PermissionSnapshot
+{
+    private static final FoundPermission NOT_SET = new FoundPermission(null, null, false);
+
+    private final int version;
+    private final Set<Context> contexts;
+    private final PermissionTrie<Node> nodes = new PermissionTrie<>();
+    private final Map<String, FoundPermission> resolved = new ConcurrentHashMap<>();
+    private final Subject subject;
+    private volatile Map<String, FoundOption> options;
+
+    PermissionSnapshot(Subject subject, Set<Context> contexts, int version)
+    {
+        this.subject = subject;
+        this.version = version;
+        this.contexts = ContextSet.of(contexts);
+        List<Subject> order = RolesUtil.getInheritanceOrder(subject, this.contexts);
+        for (int rank = 0; rank < order.size(); rank++)
+        {
+            Subject s = order.get(rank);
+            // transient data has precedence over persistent data
+            add(s, s.transientSubjectData().permissions(this.contexts), rank);
+            add(s, s.subjectData().permissions(this.contexts), rank);
+        }
+    }
+
+    private void add(Subject subject, Map<String, Boolean> permissions, int rank)
+    {
+        for (Entry<String, Boolean> entry : permissions.entrySet())
+        {
+            this.nodes.putIfAbsent(entry.getKey(), new Node(new FoundPermission(subject, entry.getKey(), entry.getValue()), rank));
+        }
+    }
+
+    public int getVersion()
+    {
+        return version;
+    }
+
+    public Set<Context> getContexts()
+    {
+        return contexts;
+    }
+
+    /**
+     * Finds the permission or its closest implicit parent set in the subject with the highest rank
+     *
+     * @param permission the permission
+     *
+     * @return the found permission or null if not set
+     */
+    public FoundPermission find(String permission)
+    {
+        FoundPermission found = this.resolved.get(permission);
+        if (found == null)
+        {
+            // remember permissions checked for tab-completion etc.
+            RolesUtil.allPermissions.add(permission);
+            found = this.resolve(permission);
+            this.resolved.put(permission, found == null ? NOT_SET : found);
+            return found;
+        }
+        return found == NOT_SET ? null : found;
+    }
+
+    /**
+     * Returns the option set in the subject resolved first
+     *
+     * @param key the option key
+     *
+     * @return the found option or null if not set
+     */
+    public FoundOption option(String key)
+    {
+        return this.options().get(key);
+    }
+
+    /**
+     * Returns all options of the subject and everything it inherits from
+     *
+     * @return the options by key
+     */
+    public Map<String, FoundOption> options()
+    {
+        Map<String, FoundOption> options = this.options;
+        if (options == null)
+        {
+            options = new HashMap<>();
+            for (Subject s : RolesUtil.getOptionOrder(this.subject, this.contexts, true))
+            {
+                // transient data has precedence over persistent data
+                addOptions(options, s, s.transientSubjectData().options(this.contexts));
+                addOptions(options, s, s.subjectData().options(this.contexts));
+            }
+            options = Collections.unmodifiableMap(options);
+            this.options = options;
+        }
+        return options;
+    }
+
+    private static void addOptions(Map<String, FoundOption> options, Subject subject, Map<String, String> data)
+    {
+        for (Entry<String, String> entry : data.entrySet())
+        {
+            options.putIfAbsent(entry.getKey(), new FoundOption(subject, entry.getValue()));
+        }
+    }
+
+    private FoundPermission resolve(String permission)
+    {
+        Node best = this.nodes.find(permission, PermissionSnapshot::select);
+        return best == null ? null : best.found;
+    }
+
+    private static Node select(Node found, Node deeper)
+    {
+        // The subject resolved first wins. Within the same subject the longer implicit parent wins.
+        return deeper.rank <= found.rank ? deeper : found;
+    }
+
+    private static final class Node
+    {
+        private final FoundPermission found;
+        private final int rank;
+
+        private Node(FoundPermission found, int rank)
+        {
+            this.found = found;
+            this.rank = rank;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.roles.service.subject;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * A trie over the dot separated segments of permission nodes.
+ * <p>Looking up a permission walks its segments once and passes every value on the way,
+ * which are the values of the permission and all its implicit parents, without allocating substrings.
+ * <p>This class is not thread-safe for writes. Once built it may be read concurrently.
+ *
+ * @param <T> the value type
+ */
+public final class PermissionTrie<T>
+{
+    private final Node<T> root = new Node<>();
+    private int size = 0;
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Sets the value of a permission node if it has no value yet
+     *
+     * @param permission the permission
+     * @param value the value
+     *
+     * @return whether the value was set
+     */
+    public boolean putIfAbsent(String permission, T value)
+    {
+        Node<T> node = this.root;
+        int start = 0;
+        int end;
+        do
+        {
+            end = permission.indexOf('.', start);
+            if (end == -1)
+            {
+                end = permission.length();
+            }
+            node = node.getOrCreate(permission, start, end);
+            start = end + 1;
+        }
+        while (end < permission.length());
+
+        if (node.value != null)
+        {
+            return false;
+        }
+        node.value = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the value of exactly this permission node
+     *
+     * @param permission the permission
+     *
+     * @return the value or null
+     */
+    public T get(String permission)
+    {
+        return find(permission, (found, deeper) -> deeper, true);
+    }
+
+    /**
+     * Finds the value for a permission looking at the permission itself and its implicit parents
+     *
+     * @param permission the permission
+     * @param select chooses between the value found so far and the value of a longer implicit parent or the permission itself
+     *
+     * @return the selected value or null if neither the permission nor any of its implicit parents has a value
+     */
+    public T find(String permission, BinaryOperator<T> select)
+    {
+        return find(permission, select, false);
+    }
+
+    private T find(String permission, BinaryOperator<T> select, boolean exact)
+    {
+        T found = null;
+        Node<T> node = this.root;
+        int start = 0;
+        int end;
+        do
+        {
+            end = permission.indexOf('.', start);
+            if (end == -1)
+            {
+                end = permission.length();
+            }
+            node = node.get(permission, start, end);
+            if (node == null)
+            {
+                return exact ? null : found;
+            }
+            if (node.value != null && (!exact || end == permission.length()))
+            {
+                found = found == null ? node.value : select.apply(found, node.value);
+            }
+            start = end + 1;
+        }
+        while (end < permission.length());
+        return found;
+    }
+
+    private static int hash(String s, int start, int end)
+    {
+        // same as String#hashCode of the substring
+        int h = 0;
+        for (int i = start; i < end; i++)
+        {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+
+    /**
+     * A node with its children in an open addressing hash table keyed by segment
+     */
+    private static final class Node<T>
+    {
+        private String[] keys;
+        private Node<T>[] children;
+        private int count;
+        private T value;
+
+        private Node<T> get(String permission, int start, int end)
+        {
+            if (this.keys == null)
+            {
+                return null;
+            }
+            int len = end - start;
+            int mask = this.keys.length - 1;
+            for (int i = hash(permission, start, end) & mask; this.keys[i] != null; i = (i + 1) & mask)
+            {
+                String key = this.keys[i];
+                if (key.length() == len && permission.regionMatches(start, key, 0, len))
+                {
+                    return this.children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node<T> getOrCreate(String permission, int start, int end)
+        {
+            Node<T> child = this.get(permission, start, end);
+            if (child == null)
+            {
+                child = new Node<>();
+                this.put(permission.substring(start, end), child);
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void put(String key, Node<T> child)
+        {
+            if (this.keys == null)
+            {
+                this.keys = new String[4];
+                this.children = new Node[4];
+            }
+            else if ((this.count + 1) * 2 > this.keys.length)
+            {
+                String[] oldKeys = this.keys;
+                Node<T>[] oldChildren = this.children;
+                this.keys = new String[oldKeys.length * 2];
+                this.children = new Node[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; i++)
+                {
+                    if (oldKeys[i] != null)
+                    {
+                        this.insert(oldKeys[i], oldChildren[i]);
+                    }
+                }
+            }
+            this.insert(key, child);
+            this.count++;
+        }
+
+        private void insert(String key, Node<T> child)
+        {
+            int mask = this.keys.length - 1;
+            int i = key.hashCode() & mask;
+            while (this.keys[i] != null)
+            {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = key;
+            this.children[i] = child;
+        }
+    }
+}
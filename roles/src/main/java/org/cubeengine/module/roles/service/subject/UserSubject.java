@@ -17,18 +17,23 @@
  */
 package org.cubeengine.module.roles.service.subject;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.cubeengine.module.roles.service.RolesPermissionService;
 import org.cubeengine.module.roles.service.data.UserSubjectData;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.permission.SubjectReference;
 
 public class UserSubject extends BaseSubject<UserSubjectData>
 {
     private final UUID uuid;
     private final UserSubjectData data;
+    private volatile long lastAccess = System.currentTimeMillis();
 
     public UserSubject(RolesPermissionService service, UUID uuid)
     {
@@ -55,6 +60,40 @@ public class UserSubject extends BaseSubject<UserSubjectData>
         return Sponge.server().gameProfileManager().uncached().profile(uuid).join().name();
     }
 
+    /**
+     * Marks the subject as used now
+     */
+    public void touch()
+    {
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public long getLastAccess()
+    {
+        return lastAccess;
+    }
+
+    @Override
+    public PermissionSnapshot permissionSnapshot(Set<Context> contexts)
+    {
+        this.touch();
+        return super.permissionSnapshot(contexts);
+    }
+
+    @Override
+    public boolean isChildOf(SubjectReference parent, Set<Context> contexts)
+    {
+        this.touch();
+        return super.isChildOf(parent, contexts);
+    }
+
+    @Override
+    public List<SubjectReference> parents(Set<Context> contexts)
+    {
+        this.touch();
+        return super.parents(contexts);
+    }
+
     public Optional<ServerPlayer> player()
     {
         return Sponge.server().player(uuid);
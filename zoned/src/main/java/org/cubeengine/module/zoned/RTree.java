@@ -0,0 +1,411 @@
+/*
+ * This file is part of CubeEngine.
+ * CubeEngine is licensed under the GNU General Public License Version 3.
+ *
+ * CubeEngine is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CubeEngine is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CubeEngine.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cubeengine.module.zoned;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A two-dimensional R-Tree (x/z plane) over bounding rectangles using quadratic splits.
+ * <p>Used to find zones and regions at a position without indexing every chunk they cover.
+ * <p>This class is not thread-safe.
+ *
+ * @param <T> the indexed value
+ */
+public class RTree<T>
+{
+    private static final int MAX_ENTRIES = 8;
+    private static final int MIN_ENTRIES = 3;
+
+    private Node<T> root = new Node<>(true);
+    private int size = 0;
+
+    public int size()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        this.root = new Node<>(true);
+        this.size = 0;
+    }
+
+    /**
+     * Adds a value with given bounds. The bounds are inclusive.
+     */
+    public void insert(double minX, double minZ, double maxX, double maxZ, T value)
+    {
+        Node<T> entry = new Node<>(Math.min(minX, maxX), Math.min(minZ, maxZ), Math.max(minX, maxX), Math.max(minZ, maxZ), value);
+        this.insert(entry);
+        this.size++;
+    }
+
+    private void insert(Node<T> entry)
+    {
+        Node<T> leaf = this.chooseLeaf(this.root, entry);
+        leaf.add(entry);
+        this.adjust(leaf);
+    }
+
+    /**
+     * Removes a value. The given bounds must be the bounds used when inserting the value.
+     *
+     * @return whether the value was found
+     */
+    public boolean remove(double minX, double minZ, double maxX, double maxZ, T value)
+    {
+        Node<T> probe = new Node<>(Math.min(minX, maxX), Math.min(minZ, maxZ), Math.max(minX, maxX), Math.max(minZ, maxZ), null);
+        return this.remove(probe, value);
+    }
+
+    /**
+     * Removes a value searching the whole tree.
+     *
+     * @return whether the value was found
+     */
+    public boolean remove(T value)
+    {
+        return this.remove(null, value);
+    }
+
+    private boolean remove(Node<T> probe, T value)
+    {
+        Node<T> leaf = this.findLeaf(this.root, probe, value);
+        if (leaf == null)
+        {
+            return false;
+        }
+        leaf.children.removeIf(e -> e.value == value);
+        this.size--;
+        this.condense(leaf);
+        return true;
+    }
+
+    /**
+     * Collects all values whose bounds contain the position
+     */
+    public void query(double x, double z, Consumer<T> consumer)
+    {
+        this.query(x, z, x, z, consumer);
+    }
+
+    /**
+     * Collects all values whose bounds intersect the rectangle
+     */
+    public void query(double minX, double minZ, double maxX, double maxZ, Consumer<T> consumer)
+    {
+        if (this.size == 0)
+        {
+            return;
+        }
+        query(this.root, minX, minZ, maxX, maxZ, consumer);
+    }
+
+    public List<T> query(double x, double z)
+    {
+        List<T> result = new ArrayList<>();
+        this.query(x, z, result::add);
+        return result;
+    }
+
+    private static <T> void query(Node<T> node, double minX, double minZ, double maxX, double maxZ, Consumer<T> consumer)
+    {
+        for (Node<T> child : node.children)
+        {
+            if (child.intersects(minX, minZ, maxX, maxZ))
+            {
+                if (node.leaf)
+                {
+                    consumer.accept(child.value);
+                }
+                else
+                {
+                    query(child, minX, minZ, maxX, maxZ, consumer);
+                }
+            }
+        }
+    }
+
+    private Node<T> chooseLeaf(Node<T> node, Node<T> entry)
+    {
+        while (!node.leaf)
+        {
+            Node<T> best = null;
+            double bestEnlargement = Double.MAX_VALUE;
+            double bestArea = Double.MAX_VALUE;
+            for (Node<T> child : node.children)
+            {
+                double area = child.area();
+                double enlargement = child.enlarged(entry) - area;
+                if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea))
+                {
+                    best = child;
+                    bestEnlargement = enlargement;
+                    bestArea = area;
+                }
+            }
+            node = best;
+        }
+        return node;
+    }
+
+    private Node<T> findLeaf(Node<T> node, Node<T> probe, T value)
+    {
+        for (Node<T> child : node.children)
+        {
+            if (node.leaf)
+            {
+                if (child.value == value)
+                {
+                    return node;
+                }
+            }
+            else if (probe == null || child.contains(probe))
+            {
+                Node<T> found = this.findLeaf(child, probe, value);
+                if (found != null)
+                {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Propagates bounds changes and splits overflowing nodes up to the root
+     */
+    private void adjust(Node<T> node)
+    {
+        while (node != null)
+        {
+            Node<T> sibling = null;
+            if (node.children.size() > MAX_ENTRIES)
+            {
+                sibling = this.split(node);
+            }
+            else
+            {
+                node.recalculate();
+            }
+            Node<T> parent = node.parent;
+            if (sibling != null)
+            {
+                if (parent == null)
+                {
+                    Node<T> newRoot = new Node<>(false);
+                    newRoot.add(node);
+                    newRoot.add(sibling);
+                    newRoot.recalculate();
+                    this.root = newRoot;
+                    return;
+                }
+                parent.add(sibling);
+            }
+            node = parent;
+        }
+    }
+
+    private void condense(Node<T> leaf)
+    {
+        List<Node<T>> orphans = new ArrayList<>();
+        Node<T> node = leaf;
+        while (node != this.root)
+        {
+            Node<T> parent = node.parent;
+            if (node.children.size() < MIN_ENTRIES)
+            {
+                parent.children.remove(node);
+                collectEntries(node, orphans);
+            }
+            else
+            {
+                node.recalculate();
+            }
+            node = parent;
+        }
+        this.root.recalculate();
+        while (!this.root.leaf && this.root.children.size() == 1)
+        {
+            this.root = this.root.children.get(0);
+            this.root.parent = null;
+        }
+        if (!this.root.leaf && this.root.children.isEmpty())
+        {
+            this.root = new Node<>(true);
+        }
+        for (Node<T> orphan : orphans)
+        {
+            this.insert(orphan);
+        }
+    }
+
+    private static <T> void collectEntries(Node<T> node, List<Node<T>> entries)
+    {
+        if (node.leaf)
+        {
+            entries.addAll(node.children);
+            return;
+        }
+        for (Node<T> child : node.children)
+        {
+            collectEntries(child, entries);
+        }
+    }
+
+    /**
+     * Quadratic split: the node keeps one group and the returned sibling gets the other
+     */
+    private Node<T> split(Node<T> node)
+    {
+        List<Node<T>> remaining = new ArrayList<>(node.children);
+        node.children.clear();
+        Node<T> sibling = new Node<>(node.leaf);
+
+        // Pick the two seeds wasting the most area when put together
+        int seedA = 0;
+        int seedB = 1;
+        double worst = -Double.MAX_VALUE;
+        for (int i = 0; i < remaining.size(); i++)
+        {
+            for (int j = i + 1; j < remaining.size(); j++)
+            {
+                Node<T> a = remaining.get(i);
+                Node<T> b = remaining.get(j);
+                double waste = a.enlarged(b) - a.area() - b.area();
+                if (waste > worst)
+                {
+                    worst = waste;
+                    seedA = i;
+                    seedB = j;
+                }
+            }
+        }
+        Node<T> b = remaining.remove(seedB);
+        Node<T> a = remaining.remove(seedA);
+        node.add(a);
+        node.recalculate();
+        sibling.add(b);
+        sibling.recalculate();
+
+        while (!remaining.isEmpty())
+        {
+            if (node.children.size() + remaining.size() == MIN_ENTRIES)
+            {
+                remaining.forEach(node::add);
+                break;
+            }
+            if (sibling.children.size() + remaining.size() == MIN_ENTRIES)
+            {
+                remaining.forEach(sibling::add);
+                break;
+            }
+            Node<T> next = remaining.remove(remaining.size() - 1);
+            double growNode = node.enlarged(next) - node.area();
+            double growSibling = sibling.enlarged(next) - sibling.area();
+            Node<T> target = growNode < growSibling || (growNode == growSibling && node.children.size() <= sibling.children.size()) ? node : sibling;
+            target.add(next);
+            target.expand(next);
+        }
+        node.recalculate();
+        sibling.recalculate();
+        return sibling;
+    }
+
+    private static class Node<T>
+    {
+        private double minX;
+        private double minZ;
+        private double maxX;
+        private double maxZ;
+
+        private final boolean leaf;
+        private final List<Node<T>> children;
+        private final T value;
+        private Node<T> parent;
+
+        private Node(boolean leaf)
+        {
+            this.leaf = leaf;
+            this.children = new ArrayList<>(MAX_ENTRIES + 1);
+            this.value = null;
+        }
+
+        private Node(double minX, double minZ, double maxX, double maxZ, T value)
+        {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+            this.leaf = false;
+            this.children = null;
+            this.value = value;
+        }
+
+        private void add(Node<T> child)
+        {
+            child.parent = this;
+            this.children.add(child);
+        }
+
+        private void recalculate()
+        {
+            if (this.children.isEmpty())
+            {
+                return;
+            }
+            this.minX = this.minZ = Double.MAX_VALUE;
+            this.maxX = this.maxZ = -Double.MAX_VALUE;
+            for (Node<T> child : this.children)
+            {
+                this.expand(child);
+            }
+        }
+
+        private void expand(Node<T> other)
+        {
+            this.minX = Math.min(this.minX, other.minX);
+            this.minZ = Math.min(this.minZ, other.minZ);
+            this.maxX = Math.max(this.maxX, other.maxX);
+            this.maxZ = Math.max(this.maxZ, other.maxZ);
+        }
+
+        private double area()
+        {
+            return (this.maxX - this.minX) * (this.maxZ - this.minZ);
+        }
+
+        private double enlarged(Node<T> other)
+        {
+            return (Math.max(this.maxX, other.maxX) - Math.min(this.minX, other.minX))
+                 * (Math.max(this.maxZ, other.maxZ) - Math.min(this.minZ, other.minZ));
+        }
+
+        private boolean intersects(double minX, double minZ, double maxX, double maxZ)
+        {
+            return this.minX <= maxX && minX <= this.maxX && this.minZ <= maxZ && minZ <= this.maxZ;
+        }
+
+        private boolean contains(Node<T> other)
+        {
+            return this.minX <= other.minX && other.maxX <= this.maxX && this.minZ <= other.minZ && other.maxZ <= this.maxZ;
+        }
+    }
+}
@@ -20,10 +20,16 @@ package org.cubeengine.module.zoned;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import com.google.inject.Inject;
@@ -33,12 +39,14 @@ import org.apache.logging.log4j.Logger;
 import org.cubeengine.libcube.ModuleManager;
 import org.cubeengine.libcube.service.filesystem.FileManager;
 import org.cubeengine.libcube.service.i18n.I18n;
+import org.cubeengine.libcube.util.math.shape.Cuboid;
 import org.cubeengine.module.zoned.config.ZoneConfig;
 import org.cubeengine.module.zoned.event.ZoneEvent;
 import org.cubeengine.reflect.Reflector;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.world.server.ServerLocation;
 import org.spongepowered.api.world.server.ServerWorld;
+import org.spongepowered.math.vector.Vector3d;
 
 import static org.cubeengine.libcube.service.i18n.formatter.MessageType.*;
 
@@ -46,7 +54,8 @@ import static org.cubeengine.libcube.service.i18n.formatter.MessageType.*;
 public class ZoneManager
 {
     private Path path;
-    private Map<String, ZoneConfig> zones = new HashMap<>();
+    private volatile Map<String, ZoneConfig> zones = new HashMap<>();
+    private volatile Map<String, RTree<ZoneConfig>> index = new HashMap<>(); // world -> zones
     private I18n i18n;
     private Reflector reflector;
     private Logger logger;
@@ -60,19 +69,45 @@ public class ZoneManager
         this.path = fm.getModulePath(Zoned.class);
     }
 
+    /**
+     * Loads all zones from disk.
+     * <p>The zone files are parsed on a worker pool and the loaded zones and their index are published at once.
+     */
     public void loadZones() throws IOException
     {
-        this.zones.clear();
+        long start = System.nanoTime();
         Path zones = this.path.resolve("zones");
         Files.createDirectories(zones);
+        List<Path> zoneFiles;
         try (Stream<Path> files = Files.walk(zones))
         {
-            files.filter(f -> !Files.isDirectory(f)).filter(f -> f.toString().endsWith("yml")).forEach(file -> {
-                ZoneConfig cfg = reflector.load(ZoneConfig.class, file.toFile());
-                this.zones.put(cfg.name, cfg);
-            });
+            zoneFiles = files.filter(f -> !Files.isDirectory(f)).filter(f -> f.toString().endsWith("yml")).collect(Collectors.toList());
         }
-        logger.info("Loaded {} zones", this.zones.size());
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try
+        {
+            List<CompletableFuture<ZoneConfig>> futures = new ArrayList<>();
+            for (Path file : zoneFiles)
+            {
+                futures.add(CompletableFuture.supplyAsync(() -> reflector.load(ZoneConfig.class, file.toFile()), pool));
+            }
+            Map<String, ZoneConfig> loaded = new HashMap<>();
+            Map<String, RTree<ZoneConfig>> index = new HashMap<>();
+            for (CompletableFuture<ZoneConfig> future : futures)
+            {
+                ZoneConfig cfg = future.join();
+                loaded.put(cfg.name, cfg);
+                addToIndex(index, cfg);
+            }
+            this.zones = loaded;
+            this.index = index;
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        logger.info("Loaded {} zones in {}ms", this.zones.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
     public Collection<ZoneConfig> getZones(String match, ServerWorld world)
@@ -89,6 +124,7 @@ public class ZoneManager
         {
             Files.delete(zone.getFile().toPath());
             this.zones.remove(zone.name);
+            this.removeFromIndex(zone);
             i18n.send(context, POSITIVE, "The zone {name} was deleted.", zone.name);
         }
         catch (IOException e)
@@ -123,7 +159,12 @@ public class ZoneManager
         cfg.name(name);
         cfg.setFile(file.toFile());
         cfg.save();
-        zones.put(name, cfg);
+        ZoneConfig replaced = zones.put(name, cfg);
+        if (replaced != null)
+        {
+            this.removeFromIndex(replaced);
+        }
+        this.addToIndex(cfg);
         i18n.send(cmdSource, POSITIVE, "Saved zone as {name}", name);
         Sponge.eventManager().post(new ZoneEvent(cfg));
     }
@@ -135,6 +176,49 @@ public class ZoneManager
 
     public List<ZoneConfig> getZonesAt(ServerLocation location)
     {
-        return null;
+        RTree<ZoneConfig> tree = this.index.get(location.world().key().asString());
+        if (tree == null)
+        {
+            return Collections.emptyList();
+        }
+        Vector3d pos = location.position();
+        List<ZoneConfig> result = new ArrayList<>();
+        tree.query(pos.x(), pos.z(), zone -> {
+            if (zone.shape.contains(pos))
+            {
+                result.add(zone);
+            }
+        });
+        return result;
+    }
+
+    private void addToIndex(ZoneConfig zone)
+    {
+        addToIndex(this.index, zone);
+    }
+
+    private static void addToIndex(Map<String, RTree<ZoneConfig>> index, ZoneConfig zone)
+    {
+        if (zone.world == null || zone.shape == null)
+        {
+            return;
+        }
+        Cuboid bounds = zone.shape.getBoundingCuboid();
+        Vector3d min = bounds.getMinimumPoint();
+        Vector3d max = bounds.getMaximumPoint();
+        index.computeIfAbsent(zone.world.getName(), k -> new RTree<>()).insert(min.x(), min.z(), max.x(), max.z(), zone);
+    }
+
+    private void removeFromIndex(ZoneConfig zone)
+    {
+        if (zone.world == null)
+        {
+            return;
+        }
+        RTree<ZoneConfig> tree = this.index.get(zone.world.getName());
+        if (tree != null)
+        {
+            tree.remove(zone);
+        }
     }
 }